@@ -0,0 +1,117 @@
+package org.tanzu.cfpulse.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.tanzu.cfpulse.CfPulseApplication;
+import org.tanzu.cfpulse.stub.StubCloudController;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A burst of concurrent tool calls against a TLS {@link StubCloudController}, where connection setup rather than the
+ * Cloud Controller dominates latency. Every iteration starts a fresh application: {@code cold} meets an empty pool,
+ * {@code warm} one filled by {@code cf.http.warmupConnections} and {@code steady} one left behind by an unmeasured
+ * burst. The connections the stub accepted during the last burst are printed at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+    private static final int BURST = 32;
+
+    @Param({"cold", "warm", "steady"})
+    String pool;
+
+    @Param({"16", "64"})
+    int maxConnections;
+
+    private StubCloudController stub;
+    private ExecutorService callers;
+    private ConfigurableApplicationContext context;
+    private ToolCallback applicationsList;
+    private int connectionsBefore;
+
+    @Setup(Level.Trial)
+    public void setUpStub() {
+        stub = new StubCloudController(2, 10, 50, true);
+        callers = Executors.newFixedThreadPool(BURST);
+    }
+
+    @Setup(Level.Iteration)
+    public void startApplication() throws InterruptedException, ExecutionException {
+        context = new SpringApplicationBuilder(CfPulseApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--cf.apiHost=127.0.0.1",
+                        "--cf.port=" + stub.port(),
+                        "--cf.skipSslValidation=true",
+                        "--cf.username=benchmark",
+                        "--cf.password=benchmark",
+                        "--cf.inventory.refreshInterval=1h",
+                        "--cf.http.warmupConnections=" + (pool.equals("warm") ? BURST : 0),
+                        "--cf.http.pool.maxConnections=" + maxConnections);
+        applicationsList = Stream.of(context.getBean("cfMcpTools", ToolCallbackProvider.class).getToolCallbacks())
+                .map(ToolCallback.class::cast)
+                .filter(tool -> tool.getToolDefinition().name().equals("applicationsList"))
+                .findFirst()
+                .orElseThrow();
+        TimeUnit.SECONDS.sleep(1);
+        if (pool.equals("steady")) {
+            burst();
+        }
+        connectionsBefore = stub.connections();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownStub() {
+        System.out.printf("%nconnections accepted during the last burst: %d%n", stub.connections() - connectionsBefore);
+        callers.shutdownNow();
+        stub.close();
+    }
+
+    @Benchmark
+    public int burst() throws InterruptedException, ExecutionException {
+        List<Callable<String>> calls = IntStream.range(0, BURST)
+                .<Callable<String>>mapToObj(i -> () -> applicationsList.call(
+                        "{\"org\":\"org%d\",\"space\":\"space%d\",\"maxStaleness\":0}".formatted(i % 2, i / 2 % 2)))
+                .toList();
+        int characters = 0;
+        for (Future<String> result : callers.invokeAll(calls)) {
+            characters += result.get().length();
+        }
+        return characters;
+    }
+}
@@ -0,0 +1,110 @@
+package org.tanzu.cfpulse.benchmark;
+
+import org.cloudfoundry.operations.applications.ApplicationSummary;
+import org.cloudfoundry.operations.services.ServiceOffering;
+import org.cloudfoundry.operations.services.ServicePlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+import org.tanzu.cfpulse.mcp.ResultProjector;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Serialization time of tool results as the raw CF client objects versus the {@link ResultProjector} table and
+ * JSON projections. The serialized sizes, the other half of the comparison, are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultSerializationBenchmark {
+    private static final List<String> APPLICATION_FIELDS = List.of("name", "requestedState", "runningInstances", "instances", "memoryLimit", "diskQuota", "urls");
+    private static final List<String> SERVICE_OFFERING_FIELDS = List.of("label", "description", "servicePlans.name");
+
+    @Param({"20", "200"})
+    int items;
+
+    private final DefaultToolCallResultConverter converter = new DefaultToolCallResultConverter();
+    private final ResultProjector projector = new ResultProjector(Integer.MAX_VALUE);
+    private List<ApplicationSummary> applications;
+    private List<ServiceOffering> serviceOfferings;
+
+    @Setup
+    public void setUp() {
+        applications = IntStream.range(0, items)
+                .mapToObj(i -> ApplicationSummary.builder()
+                        .id("c0ffee00-0000-4000-8000-%012d".formatted(i))
+                        .name("app-" + i)
+                        .requestedState(i % 5 == 0 ? "STOPPED" : "STARTED")
+                        .instances(2)
+                        .runningInstances(i % 5 == 0 ? 0 : 2)
+                        .memoryLimit(1024)
+                        .diskQuota(1024)
+                        .url("app-" + i + ".apps.example.com")
+                        .build())
+                .toList();
+        serviceOfferings = IntStream.range(0, items)
+                .mapToObj(i -> ServiceOffering.builder()
+                        .id("5e7f1ce0-0000-4000-8000-%012d".formatted(i))
+                        .label("service-" + i)
+                        .description("Managed service number " + i + " provisioned by the example broker")
+                        .servicePlans(IntStream.range(0, 4)
+                                .mapToObj(p -> ServicePlan.builder()
+                                        .id("91a40000-0000-4000-8000-%06d%06d".formatted(i, p))
+                                        .name("plan-" + p)
+                                        .description("Plan " + p + " with " + (p + 1) + " GB of memory and daily backups")
+                                        .free(p == 0)
+                                        .build())
+                                .toList())
+                        .build())
+                .toList();
+        System.out.printf("%n%d applications: raw %d chars, table %d chars, json %d chars%n", items,
+                applicationsRaw().length(), applicationsTable().length(), applicationsJson().length());
+        System.out.printf("%d service offerings: raw %d chars, table %d chars, json %d chars%n", items,
+                serviceOfferingsRaw().length(), serviceOfferingsTable().length(), serviceOfferingsJson().length());
+    }
+
+    @Benchmark
+    public String applicationsRaw() {
+        return converter.convert(applications, List.class);
+    }
+
+    @Benchmark
+    public String applicationsTable() {
+        return projector.project(applications, APPLICATION_FIELDS, null, null).text();
+    }
+
+    @Benchmark
+    public String applicationsJson() {
+        return projector.project(applications, APPLICATION_FIELDS, null, "json").text();
+    }
+
+    @Benchmark
+    public String serviceOfferingsRaw() {
+        return converter.convert(serviceOfferings, List.class);
+    }
+
+    @Benchmark
+    public String serviceOfferingsTable() {
+        return projector.project(serviceOfferings, SERVICE_OFFERING_FIELDS, null, null).text();
+    }
+
+    @Benchmark
+    public String serviceOfferingsJson() {
+        return projector.project(serviceOfferings, SERVICE_OFFERING_FIELDS, null, "json").text();
+    }
+}
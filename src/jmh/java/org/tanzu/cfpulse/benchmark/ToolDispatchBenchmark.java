@@ -0,0 +1,117 @@
+package org.tanzu.cfpulse.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.tanzu.cfpulse.CfPulseApplication;
+import org.tanzu.cfpulse.stub.StubCloudController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end cost of an MCP tool call on the SYNC server path: JSON arguments in, the {@code cfMcpTools}
+ * {@link ToolCallback} invoking the tool method, Cloud Controller round trips against {@link StubCloudController},
+ * and the serialized result out. Live calls pass {@code maxStaleness=0} to bypass the inventory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToolDispatchBenchmark {
+
+    @Param({"2", "8"})
+    int organizations;
+
+    @Param({"10", "100"})
+    int applicationsPerSpace;
+
+    @Param({"50", "500"})
+    int pageSize;
+
+    private StubCloudController stub;
+    private ConfigurableApplicationContext context;
+    private Map<String, ToolCallback> tools;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stub = new StubCloudController(organizations, applicationsPerSpace, pageSize);
+        context = new SpringApplicationBuilder(CfPulseApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--cf.apiHost=127.0.0.1",
+                        "--cf.port=" + stub.port(),
+                        "--cf.secure=false",
+                        "--cf.username=benchmark",
+                        "--cf.password=benchmark",
+                        "--cf.inventory.refreshInterval=1h");
+        tools = Stream.of(context.getBean("cfMcpTools", ToolCallbackProvider.class).getToolCallbacks())
+                .map(ToolCallback.class::cast)
+                .collect(Collectors.toMap(tool -> tool.getToolDefinition().name(), Function.identity()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public String organizationsListLive() {
+        return tools.get("organizationsList").call("{\"maxStaleness\":0}");
+    }
+
+    @Benchmark
+    public String applicationsListLive() {
+        return tools.get("applicationsList").call("{\"org\":\"org0\",\"space\":\"space0\",\"maxStaleness\":0}");
+    }
+
+    @Benchmark
+    public String applicationsListRaw() {
+        return tools.get("applicationsList").call("{\"org\":\"org0\",\"space\":\"space0\",\"maxStaleness\":0,\"fields\":\"*\",\"format\":\"json\"}");
+    }
+
+    @Benchmark
+    public String applicationsListCached() {
+        return tools.get("applicationsList").call("{\"org\":\"org0\",\"space\":\"space0\"}");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String applicationsListLiveConcurrent() {
+        return tools.get("applicationsList").call("{\"org\":\"org0\",\"space\":\"space0\",\"maxStaleness\":0}");
+    }
+
+    @Benchmark
+    public String foundationApplications() {
+        return tools.get("foundationApplications").call("{}");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String foundationApplicationsConcurrent() {
+        return tools.get("foundationApplications").call("{}");
+    }
+}
@@ -1,16 +1,27 @@
 package org.tanzu.cfpulse;
 
+import io.modelcontextprotocol.server.McpServerFeatures;
 import org.springframework.ai.tool.ToolCallbackProvider;
-import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.tanzu.cfpulse.cf.CfService;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.tanzu.cfpulse.cf.CfBatchTools;
+import org.tanzu.cfpulse.cf.CfFoundationTools;
 import org.tanzu.cfpulse.cf.CfTools;
+import org.tanzu.cfpulse.containers.ContainerMetricsTools;
+import org.tanzu.cfpulse.jobs.JobTools;
+import org.tanzu.cfpulse.logs.LogTools;
+import org.tanzu.cfpulse.mcp.ReactiveToolCallbacks;
+import org.tanzu.cfpulse.metrics.ToolCallObservations;
+
+import java.util.List;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class CfPulseApplication {
 
 	public static void main(String[] args) {
@@ -18,7 +29,20 @@ public class CfPulseApplication {
 	}
 
 	@Bean
-	ToolCallbackProvider cfMcpTools(CfTools cfTools) {
-		return MethodToolCallbackProvider.builder().toolObjects(cfTools).build();
+	@ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "SYNC", matchIfMissing = true)
+	ToolCallbackProvider cfMcpTools(CfTools cfTools, CfBatchTools cfBatchTools, CfFoundationTools cfFoundationTools,
+			LogTools logTools, JobTools jobTools, ContainerMetricsTools containerMetricsTools,
+			ToolCallObservations observations) {
+		return ReactiveToolCallbacks.blocking(observations, cfTools, cfBatchTools, cfFoundationTools, logTools, jobTools,
+				containerMetricsTools);
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "ASYNC")
+	List<McpServerFeatures.AsyncToolSpecification> cfMcpAsyncTools(CfTools cfTools, CfBatchTools cfBatchTools,
+			CfFoundationTools cfFoundationTools, LogTools logTools, JobTools jobTools,
+			ContainerMetricsTools containerMetricsTools, ToolCallObservations observations) {
+		return ReactiveToolCallbacks.nonBlocking(observations, cfTools, cfBatchTools, cfFoundationTools, logTools, jobTools,
+				containerMetricsTools);
 	}
 }
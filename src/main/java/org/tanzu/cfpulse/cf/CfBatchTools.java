@@ -0,0 +1,127 @@
+package org.tanzu.cfpulse.cf;
+
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tanzu.cfpulse.jobs.JobService;
+import org.tanzu.cfpulse.jobs.JobStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.tanzu.cfpulse.jobs.JobTools.RUNS_AS_JOB;
+
+/**
+ * Batch variants of the per-app tools. Targets run concurrently, up to {@code cf.batch.concurrency} at a time, and
+ * every target reports its own outcome so one failing app does not fail the whole batch. Restart, start and scale
+ * run as a single background job whose result is the list of outcomes.
+ */
+@Component
+public class CfBatchTools {
+
+    private static final String RESTART_APPLICATIONS = "Restart several running Cloud Foundry applications at once. " + RUNS_AS_JOB;
+    private static final String START_APPLICATIONS = "Start several Cloud Foundry applications at once. " + RUNS_AS_JOB;
+    private static final String STOP_APPLICATIONS = "Stop several running Cloud Foundry applications at once";
+    private static final String SCALE_APPLICATIONS = "Scale the number of instances, memory, or disk size of several applications at once. " + RUNS_AS_JOB;
+    private static final String BIND_SERVICE_INSTANCES = "Bind a service instance to several Cloud Foundry applications at once";
+    private static final String TARGETS_PARAM = "The applications to act on, each with its application name, organization, space and optionally its foundation";
+    private static final String CONCURRENCY_PARAM = "Maximum number of applications to act on at the same time";
+    private static final String INSTANCES_PARAM = "The new number of instances of each Cloud Foundry application";
+    private static final String MEMORY_PARAM = "The memory limit, in megabytes, of each Cloud Foundry application";
+    private static final String DISK_PARAM = "The disk size, in megabytes, of each Cloud Foundry application";
+    private static final String SI_NAME_PARAM = "Name of the Cloud Foundry service instance";
+    private final CfTools cfTools;
+    private final JobService jobService;
+    private final int concurrency;
+
+    public CfBatchTools(CfTools cfTools, JobService jobService, @Value("${cf.batch.concurrency:8}") int concurrency) {
+        this.cfTools = cfTools;
+        this.jobService = jobService;
+        this.concurrency = concurrency;
+    }
+
+    @Tool(description = RESTART_APPLICATIONS)
+    public Mono<JobStatus> restartApplications(@ToolParam(description = TARGETS_PARAM) AppTarget[] targets,
+                                               @ToolParam(description = CONCURRENCY_PARAM, required = false) Integer concurrency) {
+        return submit("restartApplications", targets, concurrency, target ->
+                cfTools.restart(target.applicationName(), target.org(), target.space(), target.foundation()));
+    }
+
+    @Tool(description = START_APPLICATIONS)
+    public Mono<JobStatus> startApplications(@ToolParam(description = TARGETS_PARAM) AppTarget[] targets,
+                                             @ToolParam(description = CONCURRENCY_PARAM, required = false) Integer concurrency) {
+        return submit("startApplications", targets, concurrency, target ->
+                cfTools.start(target.applicationName(), target.org(), target.space(), target.foundation()));
+    }
+
+    @Tool(description = STOP_APPLICATIONS)
+    public Mono<List<TargetResult>> stopApplications(@ToolParam(description = TARGETS_PARAM) AppTarget[] targets,
+                                                     @ToolParam(description = CONCURRENCY_PARAM, required = false) Integer concurrency) {
+        return forEach(targets, concurrency, target ->
+                cfTools.stopApplication(target.applicationName(), target.org(), target.space(), target.foundation()));
+    }
+
+    @Tool(description = SCALE_APPLICATIONS)
+    public Mono<JobStatus> scaleApplications(@ToolParam(description = TARGETS_PARAM) AppTarget[] targets,
+                                             @ToolParam(description = INSTANCES_PARAM, required = false) Integer instances,
+                                             @ToolParam(description = MEMORY_PARAM, required = false) Integer memory,
+                                             @ToolParam(description = DISK_PARAM, required = false) Integer disk,
+                                             @ToolParam(description = CONCURRENCY_PARAM, required = false) Integer concurrency) {
+        return submit("scaleApplications", targets, concurrency, target ->
+                cfTools.scale(target.applicationName(), instances, memory, disk, target.org(), target.space(), target.foundation()));
+    }
+
+    @Tool(description = BIND_SERVICE_INSTANCES)
+    public Mono<List<TargetResult>> bindServiceInstances(@ToolParam(description = SI_NAME_PARAM) String serviceInstanceName,
+                                                         @ToolParam(description = TARGETS_PARAM) AppTarget[] targets,
+                                                         @ToolParam(description = CONCURRENCY_PARAM, required = false) Integer concurrency) {
+        return forEach(targets, concurrency, target ->
+                cfTools.bindServiceInstance(serviceInstanceName, target.applicationName(), target.org(), target.space(), target.foundation()));
+    }
+
+    /**
+     * Runs {@link #forEach} as a background job whose step counts the targets done so far.
+     */
+    private Mono<JobStatus> submit(String tool, AppTarget[] targets, Integer requested,
+                                   Function<AppTarget, Mono<Void>> operation) {
+        int total = targets == null ? 0 : targets.length;
+        return Mono.fromCallable(() -> jobService.submit(tool, null, null, null, null, job -> {
+            AtomicInteger done = new AtomicInteger();
+            job.step("0 of %d done".formatted(total));
+            return forEach(targets, requested, target -> operation.apply(target)
+                    .doFinally(signal -> job.step("%d of %d done".formatted(done.incrementAndGet(), total))));
+        }));
+    }
+
+    /**
+     * Runs the operation for every target with bounded concurrency, returning the results in target order.
+     */
+    private Mono<List<TargetResult>> forEach(AppTarget[] targets, Integer requested,
+                                             Function<AppTarget, Mono<Void>> operation) {
+        int limit = requested == null ? concurrency : Math.clamp(requested, 1, concurrency);
+        return Flux.fromArray(targets == null ? new AppTarget[0] : targets)
+                .flatMapSequential(target -> Mono.defer(() -> operation.apply(target))
+                        .thenReturn(TargetResult.ok(target))
+                        .onErrorResume(e -> Mono.just(TargetResult.failed(target, e))), limit)
+                .collectList();
+    }
+
+    public record AppTarget(String applicationName, String org, String space, String foundation) {
+    }
+
+    public record TargetResult(String applicationName, String org, String space, String foundation, boolean success, String error) {
+
+        static TargetResult ok(AppTarget target) {
+            return new TargetResult(target.applicationName(), target.org(), target.space(), target.foundation(), true, null);
+        }
+
+        static TargetResult failed(AppTarget target, Throwable e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new TargetResult(target.applicationName(), target.org(), target.space(), target.foundation(), false, error);
+        }
+    }
+}
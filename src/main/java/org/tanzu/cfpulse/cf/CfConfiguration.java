@@ -1,72 +1,78 @@
 package org.tanzu.cfpulse.cf;
 
-import org.cloudfoundry.client.CloudFoundryClient;
-import org.cloudfoundry.doppler.DopplerClient;
-import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
-import org.cloudfoundry.reactor.ConnectionContext;
+import io.netty.channel.ChannelOption;
 import org.cloudfoundry.reactor.DefaultConnectionContext;
-import org.cloudfoundry.reactor.TokenProvider;
-import org.cloudfoundry.reactor.client.ReactorCloudFoundryClient;
-import org.cloudfoundry.reactor.doppler.ReactorDopplerClient;
-import org.cloudfoundry.reactor.tokenprovider.PasswordGrantTokenProvider;
-import org.cloudfoundry.reactor.uaa.ReactorUaaClient;
-import org.cloudfoundry.uaa.UaaClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.tanzu.cfpulse.metrics.CfApiMetrics;
+import reactor.netty.NettyPipeline;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
 
 @Configuration
+@EnableConfigurationProperties(FoundationProperties.class)
 public class CfConfiguration {
 
-    @Bean
-    DefaultConnectionContext connectionContext(@Value("${cf.apiHost}") String apiHost) {
-        return DefaultConnectionContext.builder()
-                .apiHost(apiHost)
-                .build();
-    }
-
-    @Bean
-    PasswordGrantTokenProvider tokenProvider(@Value("${cf.username}") String username,
-                                             @Value("${cf.password}") String password) {
-        return PasswordGrantTokenProvider.builder()
-                .password(password)
-                .username(username)
-                .build();
-    }
-
-    @Bean
-    ReactorCloudFoundryClient cloudFoundryClient(ConnectionContext connectionContext, TokenProvider tokenProvider) {
-        return ReactorCloudFoundryClient.builder()
-                .connectionContext(connectionContext)
-                .tokenProvider(tokenProvider)
+    /**
+     * One pool of keep-alive connections shared by the Cloud Controller, UAA and Doppler clients of every foundation;
+     * {@code maxConnections} applies to each host separately. Connections are leased most recently used first, so a
+     * burst reuses the warm ones and the surplus idles out before an intermediary (gorouter, load balancer) closes it
+     * underneath us.
+     */
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider cfConnectionProvider(@Value("${cf.http.pool.maxConnections:64}") int maxConnections,
+                                            @Value("${cf.http.pool.pendingAcquireTimeout:45s}") Duration pendingAcquireTimeout,
+                                            @Value("${cf.http.pool.maxIdleTime:50s}") Duration maxIdleTime,
+                                            @Value("${cf.http.pool.maxLifeTime:10m}") Duration maxLifeTime,
+                                            @Value("${cf.http.pool.evictionInterval:30s}") Duration evictionInterval) {
+        return ConnectionProvider.builder("cloudfoundry-client")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictionInterval)
+                .lifo()
+                .metrics(true)
                 .build();
     }
 
-    @Bean
-    ReactorDopplerClient dopplerClient(ConnectionContext connectionContext, TokenProvider tokenProvider) {
-        return ReactorDopplerClient.builder()
-                .connectionContext(connectionContext)
-                .tokenProvider(tokenProvider)
-                .build();
+    @Bean(destroyMethod = "dispose")
+    LoopResources cfLoopResources(@Value("${cf.http.eventLoops:0}") int eventLoops) {
+        return LoopResources.create("cloudfoundry-client",
+                eventLoops > 0 ? eventLoops : LoopResources.DEFAULT_IO_WORKER_COUNT, true);
     }
 
+    /**
+     * Replaces the client {@link DefaultConnectionContext} would build for itself, which cannot be given a custom
+     * {@link ConnectionProvider}. {@link FoundationRegistry} adds TLS per foundation, including
+     * {@code skipSslValidation}; left to the context it opens an extra connection per root lookup to collect
+     * certificates. HTTP keep-alive is always on, the pool depends on it; {@code cf.http.tcpKeepAlive} only sets
+     * {@code SO_KEEPALIVE} on the sockets.
+     */
     @Bean
-    ReactorUaaClient uaaClient(ConnectionContext connectionContext, TokenProvider tokenProvider) {
-        return ReactorUaaClient.builder()
-                .connectionContext(connectionContext)
-                .tokenProvider(tokenProvider)
-                .build();
+    HttpClient cfHttpClient(ConnectionProvider cfConnectionProvider,
+                            LoopResources cfLoopResources,
+                            @Value("${cf.http.connectTimeout:10s}") Duration connectTimeout,
+                            @Value("${cf.http.tcpKeepAlive:true}") boolean tcpKeepAlive,
+                            @Value("${cf.http.compression:true}") boolean compression,
+                            CfApiMetrics cfApiMetrics) {
+        return cfApiMetrics.instrument(HttpClient.create(cfConnectionProvider)
+                .runOn(cfLoopResources)
+                .compress(compression)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, tcpKeepAlive)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .doOnConnected(connection -> {
+                    if (connection.channel().pipeline().get(ConnectionReuseHandler.NAME) == null) {
+                        connection.channel().pipeline()
+                                .addBefore(NettyPipeline.ReactiveBridge, ConnectionReuseHandler.NAME, new ConnectionReuseHandler());
+                    }
+                }));
     }
-
-    @Bean
-    DefaultCloudFoundryOperations.Builder cloudFoundryOperationsBuilder(CloudFoundryClient cloudFoundryClient,
-                                                                        DopplerClient dopplerClient,
-                                                                        UaaClient uaaClient) {
-        return DefaultCloudFoundryOperations.builder()
-                .cloudFoundryClient(cloudFoundryClient)
-                .dopplerClient(dopplerClient)
-                .uaaClient(uaaClient);
-    }
-
 }
-
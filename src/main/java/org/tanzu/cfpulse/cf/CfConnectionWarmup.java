@@ -0,0 +1,56 @@
+package org.tanzu.cfpulse.cf;
+
+import org.cloudfoundry.reactor.ConnectionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Prepares the shared connection pool once the application is ready: initializes the event loops, opens
+ * {@code cf.http.warmupConnections} connections to the Cloud Controller of every foundation and fetches their first
+ * tokens, so the first burst of tool calls does not pay for TLS handshakes and the password grant.
+ */
+@Component
+public class CfConnectionWarmup {
+    private static final Logger logger = LoggerFactory.getLogger(CfConnectionWarmup.class);
+
+    private final FoundationRegistry foundations;
+    private final int connections;
+
+    public CfConnectionWarmup(FoundationRegistry foundations,
+                              @Value("${cf.http.warmupConnections:4}") int connections) {
+        this.foundations = foundations;
+        this.connections = connections;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (connections <= 0) {
+            return;
+        }
+        foundations.all().forEach(this::warmUp);
+    }
+
+    private void warmUp(Foundation foundation) {
+        ConnectionContext connectionContext = foundation.connectionContext();
+        HttpClient httpClient = foundation.httpClient();
+        httpClient.warmup()
+                .then(connectionContext.getRootProvider().getRoot(connectionContext))
+                .flatMap(root -> Mono.when(
+                        Flux.range(0, connections)
+                                .flatMap(i -> httpClient.get().uri(root).responseSingle((response, body) -> body.then()),
+                                        connections),
+                        foundation.tokenProvider().getToken(connectionContext)))
+                .doOnSuccess(done -> logger.debug("Warmed up {} connections to the Cloud Controller of {}",
+                        connections, foundation.name()))
+                .doOnError(e -> logger.warn("Connection warm-up of {} failed: {}", foundation.name(), e.getMessage()))
+                .onErrorComplete()
+                .subscribe();
+    }
+}
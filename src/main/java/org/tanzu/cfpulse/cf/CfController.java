@@ -1,69 +1,60 @@
 package org.tanzu.cfpulse.cf;
 
-import org.cloudfoundry.doppler.Envelope;
-import org.cloudfoundry.doppler.LogMessage;
-import org.cloudfoundry.doppler.RecentLogsRequest;
-import org.cloudfoundry.operations.CloudFoundryOperations;
-import org.cloudfoundry.operations.applications.ApplicationDetail;
-import org.cloudfoundry.operations.applications.GetApplicationRequest;
-import org.cloudfoundry.reactor.doppler.ReactorDopplerClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.tanzu.cfpulse.logs.LogFilter;
+import org.tanzu.cfpulse.logs.LogLine;
+import org.tanzu.cfpulse.logs.LogService;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
 public class CfController {
     private final CfService cfService;
-    private final ReactorDopplerClient reactorDopplerClient;
+    private final LogService logService;
 
-    public CfController(CfService cfService, ReactorDopplerClient reactorDopplerClient) {
+    public CfController(CfService cfService, LogService logService) {
         this.cfService = cfService;
-        this.reactorDopplerClient = reactorDopplerClient;
+        this.logService = logService;
     }
 
     @GetMapping("/orgs")
-    public List<Org> orgs() {
-        List<Org> result = new ArrayList<>();
-        cfService.allOrgs().forEach(organizationSummary -> {
-            result.add(new Org(organizationSummary.getName()));
-        });
-        result.sort((r1, r2) -> r1.name.compareToIgnoreCase(r2.name));
-        return result;
+    public Mono<List<Org>> orgs(@RequestParam(value = "foundation", required = false) String foundation,
+                                @RequestParam(value = "maxStaleness", required = false) Integer maxStaleness) {
+        return cfService.allOrgs(foundation, staleness(maxStaleness))
+                .map(organizationSummary -> new Org(organizationSummary.getName()))
+                .sort((r1, r2) -> r1.name.compareToIgnoreCase(r2.name))
+                .collectList();
     }
 
     @GetMapping("/spaces")
-    public List<Space> spaces(@RequestParam("org") String org) {
-        List<Space> result = new ArrayList<>();
-        cfService.allSpaces(org).forEach(spaceSummary -> {
-            result.add(new Space(spaceSummary.getName()));
-        });
-        result.sort((r1, r2) -> r1.name.compareToIgnoreCase(r2.name));
-        return result;
+    public Mono<List<Space>> spaces(@RequestParam("org") String org,
+                                    @RequestParam(value = "foundation", required = false) String foundation,
+                                    @RequestParam(value = "maxStaleness", required = false) Integer maxStaleness) {
+        return cfService.allSpaces(foundation, org, staleness(maxStaleness))
+                .map(spaceSummary -> new Space(spaceSummary.getName()))
+                .sort((r1, r2) -> r1.name.compareToIgnoreCase(r2.name))
+                .collectList();
     }
 
-    @GetMapping("/logs/{org}/{space}")
-    public List<LogMessage> logs(@PathVariable("org") String org, @PathVariable("space") String space) {
-        CloudFoundryOperations cloudFoundryOperations = cfService.createCloudFoundryOperations(org, space);
-        GetApplicationRequest getApplicationRequest = GetApplicationRequest.builder().name("joke").build();
-        Mono<ApplicationDetail> applicationDetailMono = cloudFoundryOperations.applications().get(getApplicationRequest);
-        ApplicationDetail applicationDetail = applicationDetailMono.block();
-        String applicationId = applicationDetail.getId();
-
-        RecentLogsRequest recentLogsRequest = RecentLogsRequest.builder().applicationId(applicationId).build();
-        Flux<Envelope> envelopeFlux = reactorDopplerClient.recentLogs(recentLogsRequest);
-        List<Envelope> envelopes = envelopeFlux.collectList().block();
-        for (Envelope envelope : envelopes) {
-            LogMessage logMessage = envelope.getLogMessage();
-            System.out.println(logMessage.getMessage());
-        }
+    @GetMapping(value = "/logs/{org}/{space}/{app}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<LogLine> logs(@PathVariable("org") String org, @PathVariable("space") String space,
+                              @PathVariable("app") String app,
+                              @RequestParam(value = "foundation", required = false) String foundation,
+                              @RequestParam(value = "sourceType", required = false) String sourceType,
+                              @RequestParam(value = "instance", required = false) Integer instance,
+                              @RequestParam(value = "pattern", required = false) String pattern) {
+        return logService.tail(foundation, org, space, app, LogFilter.of(sourceType, instance, pattern));
+    }
 
-        return new ArrayList<>();
+    private static Duration staleness(Integer maxStaleness) {
+        return maxStaleness == null ? null : Duration.ofSeconds(maxStaleness);
     }
 
     public record Org(String name) {
@@ -0,0 +1,362 @@
+package org.tanzu.cfpulse.cf;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v3.PaginatedResponse;
+import org.cloudfoundry.client.v3.applications.ApplicationResource;
+import org.cloudfoundry.client.v3.applications.ApplicationState;
+import org.cloudfoundry.client.v3.applications.ListApplicationsRequest;
+import org.cloudfoundry.client.v3.organizations.ListOrganizationsRequest;
+import org.cloudfoundry.client.v3.organizations.OrganizationResource;
+import org.cloudfoundry.client.v3.processes.GetProcessStatisticsRequest;
+import org.cloudfoundry.client.v3.processes.ListProcessesRequest;
+import org.cloudfoundry.client.v3.processes.ProcessResource;
+import org.cloudfoundry.client.v3.processes.ProcessState;
+import org.cloudfoundry.client.v3.serviceinstances.ListServiceInstancesRequest;
+import org.cloudfoundry.client.v3.serviceinstances.ServiceInstanceResource;
+import org.cloudfoundry.client.v3.spaces.ListSpacesRequest;
+import org.cloudfoundry.client.v3.spaces.SpaceResource;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.ai.util.json.JsonParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tanzu.cfpulse.mcp.ProjectedResult;
+import org.tanzu.cfpulse.mcp.ResultProjector;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.regex.Pattern;
+
+import static org.tanzu.cfpulse.mcp.ResultProjector.FIELDS_PARAM;
+import static org.tanzu.cfpulse.mcp.ResultProjector.FORMAT_PARAM;
+
+/**
+ * Tools that answer questions about whole foundations in one call. They read the v3 listings straight from the
+ * Cloud Controller with large pages, fetch the remaining pages in parallel, and join apps, processes, spaces and
+ * orgs in memory instead of walking org by org and space by space. Unless one foundation is named, every configured
+ * foundation is queried at the same time and the rows are merged. The merged rows go through the same
+ * {@link ResultProjector} field selection and size cap as the per-space tools.
+ */
+@Component
+public class CfFoundationTools {
+
+    private static final String FOUNDATIONS_LIST = "Return the Cloud Foundry foundations that can be queried, with their API hosts and which one is the default";
+    private static final String FOUNDATION_APPLICATIONS = "Return the applications across all organizations and spaces of the Cloud Foundry foundations, " +
+            "with their state, instances, memory and disk. Use the state filter CRASHED to find apps with crashed instances anywhere";
+    private static final String FOUNDATION_SERVICE_INSTANCES = "Return the service instances across all organizations and spaces of the Cloud Foundry foundations";
+    private static final String FOUNDATION_FILTER_PARAM = "Only return results from this Cloud Foundry foundation. Leave it out to query all foundations";
+    private static final String ORG_FILTER_PARAM = "Only return results from this Cloud Foundry organization";
+    private static final String STATE_FILTER_PARAM = "Only return applications in this state: STARTED, STOPPED or CRASHED";
+    private static final String NAME_FILTER_PARAM = "Only return results whose name matches this regular expression";
+    private static final String TYPE_FILTER_PARAM = "Only return service instances of this type: managed or user-provided";
+    private static final String CRASHED = "CRASHED";
+    private static final String WEB_PROCESS = "web";
+    static final int SPACE_IDS_PER_REQUEST = 50;
+    private static final List<String> APPLICATION_FIELDS = List.of("name", "foundation", "org", "space", "state", "instances", "memoryMb", "diskMb", "crashedInstances");
+    private static final List<String> SERVICE_INSTANCE_FIELDS = List.of("name", "type", "foundation", "org", "space", "lastOperation");
+    private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+    private final FoundationRegistry foundations;
+    private final int pageSize;
+    private final int concurrency;
+    private final ResultProjector projector;
+
+    public CfFoundationTools(FoundationRegistry foundations,
+                             @Value("${cf.foundation.pageSize:5000}") int pageSize,
+                             @Value("${cf.foundation.concurrency:8}") int concurrency,
+                             ResultProjector projector) {
+        this.foundations = foundations;
+        this.pageSize = pageSize;
+        this.concurrency = concurrency;
+        this.projector = projector;
+    }
+
+    @Tool(description = FOUNDATIONS_LIST)
+    public List<FoundationSummary> foundationsList() {
+        return foundations.all().stream()
+                .map(foundation -> new FoundationSummary(foundation.name(), foundation.apiHost(),
+                        foundation.name().equals(foundations.defaultName())))
+                .toList();
+    }
+
+    @Tool(description = FOUNDATION_APPLICATIONS)
+    public Mono<ProjectedResult> foundationApplications(@ToolParam(description = ORG_FILTER_PARAM, required = false) String org,
+                                                        @ToolParam(description = STATE_FILTER_PARAM, required = false) String state,
+                                                        @ToolParam(description = NAME_FILTER_PARAM, required = false) String name,
+                                                        @ToolParam(description = FOUNDATION_FILTER_PARAM, required = false) String foundation,
+                                                        @ToolParam(description = FIELDS_PARAM, required = false) String fields,
+                                                        @ToolParam(description = FORMAT_PARAM, required = false) String format) {
+        Predicate<String> names = nameFilter(name);
+        boolean crashed = CRASHED.equalsIgnoreCase(state);
+        ApplicationState applicationState = state == null || state.isBlank() ? null
+                : crashed ? ApplicationState.STARTED
+                : ApplicationState.from(state.toUpperCase());
+        return fanOut(foundation, target -> applications(target, org, applicationState, names)
+                        .transform(rows -> crashed ? withCrashedInstances(target.cloudFoundryClient(), rows) : rows),
+                Comparator.comparing(FoundationApplication::foundation)
+                        .thenComparing(FoundationApplication::org, NULLS_FIRST)
+                        .thenComparing(FoundationApplication::space, NULLS_FIRST)
+                        .thenComparing(FoundationApplication::name))
+                .map(merged -> merged.project(projector, APPLICATION_FIELDS, fields, format));
+    }
+
+    @Tool(description = FOUNDATION_SERVICE_INSTANCES)
+    public Mono<ProjectedResult> foundationServiceInstances(@ToolParam(description = ORG_FILTER_PARAM, required = false) String org,
+                                                            @ToolParam(description = TYPE_FILTER_PARAM, required = false) String type,
+                                                            @ToolParam(description = NAME_FILTER_PARAM, required = false) String name,
+                                                            @ToolParam(description = FOUNDATION_FILTER_PARAM, required = false) String foundation,
+                                                            @ToolParam(description = FIELDS_PARAM, required = false) String fields,
+                                                            @ToolParam(description = FORMAT_PARAM, required = false) String format) {
+        Predicate<String> names = nameFilter(name);
+        return fanOut(foundation, target -> serviceInstances(target, org, type, names),
+                Comparator.comparing(FoundationServiceInstance::foundation)
+                        .thenComparing(FoundationServiceInstance::org, NULLS_FIRST)
+                        .thenComparing(FoundationServiceInstance::space, NULLS_FIRST)
+                        .thenComparing(FoundationServiceInstance::name))
+                .map(merged -> merged.project(projector, SERVICE_INSTANCE_FIELDS, fields, format));
+    }
+
+    /**
+     * Runs the query against every selected foundation at once and merges the rows. A foundation that fails is
+     * reported next to the rows of the others; the call only fails when all of them do.
+     */
+    private <T> Mono<Merged<T>> fanOut(String foundation, Function<Foundation, Flux<T>> query, Comparator<T> order) {
+        return Mono.fromCallable(() -> foundations.select(foundation))
+                .flatMap(targets -> Flux.fromIterable(targets)
+                        .flatMap(target -> Flux.defer(() -> query.apply(target))
+                                .collectList()
+                                .map(rows -> new Partial<>(target.name(), rows, null))
+                                .onErrorResume(e -> Mono.just(new Partial<>(target.name(), List.of(), e))))
+                        .collectList()
+                        .flatMap(partials -> partials.stream().anyMatch(partial -> partial.error() == null)
+                                ? Mono.just(Merged.of(partials, order))
+                                : Mono.error(failure(partials))));
+    }
+
+    private static Throwable failure(List<? extends Partial<?>> partials) {
+        if (partials.size() == 1) {
+            return partials.getFirst().error();
+        }
+        return new IllegalStateException(partials.stream()
+                .map(partial -> partial.foundation() + ": " + message(partial.error()))
+                .collect(Collectors.joining("; ", "All foundations failed. ", "")));
+    }
+
+    private Flux<FoundationApplication> applications(Foundation foundation, String org, ApplicationState applicationState,
+                                                     Predicate<String> names) {
+        CloudFoundryClient cloudFoundryClient = foundation.cloudFoundryClient();
+        return organizations(cloudFoundryClient)
+                .flatMapMany(organizations -> {
+                    List<String> organizationIds = organizationIds(organizations, org);
+                    Mono<Map<String, SpaceResource>> spaces = all(page -> cloudFoundryClient.spacesV3().list(ListSpacesRequest.builder()
+                            .organizationIds(organizationIds).perPage(pageSize).page(page).build()))
+                            .collectMap(SpaceResource::getId);
+                    Mono<List<ApplicationResource>> applications = all(page -> cloudFoundryClient.applicationsV3().list(ListApplicationsRequest.builder()
+                            .organizationIds(organizationIds).perPage(pageSize).page(page).build()))
+                            .filter(application -> applicationState == null || application.getState() == applicationState)
+                            .filter(application -> names.test(application.getName()))
+                            .collectList();
+                    Mono<Map<String, ProcessResource>> processes = all(page -> cloudFoundryClient.processes().list(ListProcessesRequest.builder()
+                            .organizationIds(organizationIds).type(WEB_PROCESS).perPage(pageSize).page(page).build()))
+                            .collectMap(process -> process.getRelationships().getApp().getData().getId());
+                    return Mono.zip(spaces, applications, processes)
+                            .flatMapMany(joined -> Flux.fromIterable(joined.getT2())
+                                    .map(application -> FoundationApplication.of(foundation.name(), application,
+                                            joined.getT3().get(application.getId()),
+                                            joined.getT1().get(application.getRelationships().getSpace().getData().getId()),
+                                            organizations)));
+                });
+    }
+
+    private Flux<FoundationServiceInstance> serviceInstances(Foundation foundation, String org, String type, Predicate<String> names) {
+        CloudFoundryClient cloudFoundryClient = foundation.cloudFoundryClient();
+        return organizations(cloudFoundryClient)
+                .flatMapMany(organizations -> all(page -> cloudFoundryClient.spacesV3().list(ListSpacesRequest.builder()
+                        .organizationIds(organizationIds(organizations, org)).perPage(pageSize).page(page).build()))
+                        .collectMap(SpaceResource::getId)
+                        .flatMapMany(spaces -> serviceInstances(cloudFoundryClient, org == null || org.isBlank() ? null : spaces.keySet())
+                                .filter(serviceInstance -> spaces.containsKey(serviceInstance.getRelationships().getSpace().getData().getId()))
+                                .filter(serviceInstance -> type == null || type.isBlank() || serviceInstance.getType().getValue().equalsIgnoreCase(type))
+                                .filter(serviceInstance -> names.test(serviceInstance.getName()))
+                                .map(serviceInstance -> FoundationServiceInstance.of(foundation.name(), serviceInstance,
+                                        spaces.get(serviceInstance.getRelationships().getSpace().getData().getId()),
+                                        organizations))));
+    }
+
+    /**
+     * The service instances in the given spaces, or in every space when {@code spaceIds} is null. The v3 listing has
+     * no organization filter, so an org's spaces are sent {@value #SPACE_IDS_PER_REQUEST} at a time to keep the query
+     * string within URL length limits; an org without spaces has no service instances and sends no request at all.
+     */
+    private Flux<ServiceInstanceResource> serviceInstances(CloudFoundryClient cloudFoundryClient, Collection<String> spaceIds) {
+        if (spaceIds == null) {
+            return all(page -> cloudFoundryClient.serviceInstancesV3().list(ListServiceInstancesRequest.builder()
+                    .perPage(pageSize).page(page).build()));
+        }
+        return Flux.fromIterable(spaceIds)
+                .buffer(SPACE_IDS_PER_REQUEST)
+                .flatMap(chunk -> all(page -> cloudFoundryClient.serviceInstancesV3().list(ListServiceInstancesRequest.builder()
+                        .spaceIds(chunk).perPage(pageSize).page(page).build())), concurrency);
+    }
+
+    /**
+     * Looks up the instance states of the started apps, a bounded number at a time, and keeps those with crashes.
+     */
+    private Flux<FoundationApplication> withCrashedInstances(CloudFoundryClient cloudFoundryClient,
+                                                             Flux<FoundationApplication> applications) {
+        return applications
+                .filter(application -> application.processId() != null)
+                .flatMap(application -> cloudFoundryClient.processes()
+                        .getStatistics(GetProcessStatisticsRequest.builder().processId(application.processId()).build())
+                        .map(statistics -> statistics.getResources().stream()
+                                .filter(instance -> instance.getState() == ProcessState.CRASHED)
+                                .count())
+                        .filter(crashes -> crashes > 0)
+                        .map(crashes -> application.withCrashedInstances(crashes.intValue())), concurrency);
+    }
+
+    private Mono<Map<String, String>> organizations(CloudFoundryClient cloudFoundryClient) {
+        return all(page -> cloudFoundryClient.organizationsV3().list(ListOrganizationsRequest.builder()
+                .perPage(pageSize).page(page).build()))
+                .collectMap(OrganizationResource::getId, OrganizationResource::getName);
+    }
+
+    private static List<String> organizationIds(Map<String, String> organizations, String org) {
+        if (org == null || org.isBlank()) {
+            return List.of();
+        }
+        List<String> organizationIds = organizations.entrySet().stream()
+                .filter(organization -> organization.getValue().equals(org))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (organizationIds.isEmpty()) {
+            throw new IllegalArgumentException("Organization %s does not exist".formatted(org));
+        }
+        return organizationIds;
+    }
+
+    private static Predicate<String> nameFilter(String name) {
+        if (name == null || name.isEmpty()) {
+            return candidate -> true;
+        }
+        Pattern pattern = Pattern.compile(name, Pattern.CASE_INSENSITIVE);
+        return candidate -> pattern.matcher(candidate).find();
+    }
+
+    /**
+     * Reads the first page, then fetches the remaining pages in parallel, at most {@code cf.foundation.concurrency}
+     * at a time.
+     */
+    private <R> Flux<R> all(IntFunction<Mono<? extends PaginatedResponse<R>>> pages) {
+        return pages.apply(1).flatMapMany(first -> {
+            int totalPages = Optional.ofNullable(first.getPagination().getTotalPages()).orElse(1);
+            return Flux.fromIterable(first.getResources())
+                    .concatWith(Flux.range(2, Math.max(0, totalPages - 1))
+                            .flatMap(pages::apply, concurrency)
+                            .flatMapIterable(PaginatedResponse::getResources));
+        });
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record FoundationApplication(String name, String foundation, String org, String space, String state,
+                                        Integer instances, Integer memoryMb, Integer diskMb,
+                                        Integer crashedInstances, @JsonIgnore String processId) {
+
+        static FoundationApplication of(String foundation, ApplicationResource application, ProcessResource process,
+                                        SpaceResource space, Map<String, String> organizations) {
+            return new FoundationApplication(application.getName(),
+                    foundation,
+                    organization(space, organizations),
+                    space == null ? null : space.getName(),
+                    application.getState().getValue(),
+                    process == null ? null : process.getInstances(),
+                    process == null ? null : process.getMemoryInMb(),
+                    process == null ? null : process.getDiskInMb(),
+                    null,
+                    process == null ? null : process.getId());
+        }
+
+        FoundationApplication withCrashedInstances(int crashedInstances) {
+            return new FoundationApplication(name, foundation, org, space, state, instances, memoryMb, diskMb, crashedInstances, processId);
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record FoundationServiceInstance(String name, String type, String foundation, String org, String space,
+                                            String lastOperation) {
+
+        static FoundationServiceInstance of(String foundation, ServiceInstanceResource serviceInstance, SpaceResource space,
+                                            Map<String, String> organizations) {
+            return new FoundationServiceInstance(serviceInstance.getName(),
+                    serviceInstance.getType().getValue(),
+                    foundation,
+                    organization(space, organizations),
+                    space == null ? null : space.getName(),
+                    Optional.ofNullable(serviceInstance.getLastOperation())
+                            .map(operation -> operation.getType() + " " + operation.getState())
+                            .orElse(null));
+        }
+    }
+
+    public record FoundationSummary(String name, String apiHost, boolean defaultFoundation) {
+    }
+
+    /**
+     * The rows of all foundations that answered, and the error of each one that did not.
+     */
+    record Merged<T>(List<T> results, Map<String, String> failures) {
+
+        static <T> Merged<T> of(List<Partial<T>> partials, Comparator<T> order) {
+            Map<String, String> failures = new TreeMap<>();
+            partials.stream()
+                    .filter(partial -> partial.error() != null)
+                    .forEach(partial -> failures.put(partial.foundation(), message(partial.error())));
+            return new Merged<>(partials.stream()
+                    .flatMap(partial -> partial.rows().stream())
+                    .sorted(order)
+                    .toList(), failures);
+        }
+
+        /**
+         * Renders the rows with {@link ResultProjector}. Failed foundations follow the rows of a table, or sit next
+         * to them in a JSON object.
+         */
+        ProjectedResult project(ResultProjector projector, List<String> defaultFields, String fields, String format) {
+            ProjectedResult rows = projector.project(results, defaultFields, fields, format);
+            if (failures.isEmpty()) {
+                return rows;
+            }
+            if ("json".equalsIgnoreCase(format)) {
+                return new ProjectedResult("{\"results\":%s,\"failures\":%s}".formatted(rows.text(), JsonParser.toJson(failures)));
+            }
+            return new ProjectedResult(rows.text() + (rows.text().endsWith("\n") ? "" : "\n") + failures.entrySet().stream()
+                    .map(failure -> failure.getKey() + ": " + failure.getValue())
+                    .collect(Collectors.joining("; ", "[failed: ", "]")));
+        }
+    }
+
+    private record Partial<T>(String foundation, List<T> rows, Throwable error) {
+    }
+
+    private static String message(Throwable error) {
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+
+    private static String organization(SpaceResource space, Map<String, String> organizations) {
+        return Optional.ofNullable(space)
+                .map(resource -> resource.getRelationships().getOrganization().getData().getId())
+                .map(organizations::get)
+                .orElse(null);
+    }
+}
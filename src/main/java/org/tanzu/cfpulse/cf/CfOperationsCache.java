@@ -0,0 +1,90 @@
+package org.tanzu.cfpulse.cf;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.cloudfoundry.operations.CloudFoundryOperations;
+import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps built {@link CloudFoundryOperations} per (org, space) so the organization and space GUIDs they
+ * resolve are reused across tool calls instead of being looked up again on every invocation. There is one cache per
+ * foundation and caller, created by {@link FoundationRegistry}; it is published as metrics when it gets a registry.
+ */
+public class CfOperationsCache {
+    private static final Pattern MISSING_ORGANIZATION = Pattern.compile("Organization (.+) does not exist");
+    private static final Pattern MISSING_SPACE = Pattern.compile("Space (.+) does not exist");
+
+    private final CfOperationsFactory operationsFactory;
+    private final Cache<Target, CloudFoundryOperations> cache;
+
+    public CfOperationsCache(String foundation,
+                             CfOperationsFactory operationsFactory,
+                             @Nullable MeterRegistry meterRegistry,
+                             long maximumSize,
+                             Duration ttl) {
+        this.operationsFactory = operationsFactory;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "cfOperations." + foundation);
+        }
+    }
+
+    public CloudFoundryOperations get(String org, String space) {
+        return cache.get(new Target(normalize(org), normalize(space)),
+                target -> operationsFactory.create(target.org(), target.space()));
+    }
+
+    public void invalidateOrganization(String org) {
+        cache.asMap().keySet().removeIf(target -> Objects.equals(target.org(), org));
+    }
+
+    public void invalidateSpace(String org, String space) {
+        cache.asMap().keySet().removeIf(target -> Objects.equals(target.org(), org) && Objects.equals(target.space(), space));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * The organization and space GUIDs resolved by a {@link DefaultCloudFoundryOperations} are cached together
+     * with any lookup failure, so a target that was renamed or deleted, or whose lookup failed for any other reason
+     * than a missing resource further down the call, has to be dropped before it can be resolved again.
+     */
+    public void evictOnError(String org, String space, Throwable error) {
+        if (!(error instanceof IllegalArgumentException)) {
+            invalidateSpace(normalize(org), normalize(space));
+            return;
+        }
+        if (error.getMessage() == null) {
+            return;
+        }
+        Matcher organization = MISSING_ORGANIZATION.matcher(error.getMessage());
+        if (organization.matches()) {
+            invalidateOrganization(organization.group(1));
+            return;
+        }
+        if (MISSING_SPACE.matcher(error.getMessage()).matches()) {
+            invalidateSpace(normalize(org), normalize(space));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private record Target(String org, String space) {
+    }
+}
@@ -0,0 +1,40 @@
+package org.tanzu.cfpulse.cf;
+
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.doppler.DopplerClient;
+import org.cloudfoundry.operations.CloudFoundryOperations;
+import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
+import org.cloudfoundry.uaa.UaaClient;
+
+import java.time.Duration;
+
+/**
+ * Creates {@link CloudFoundryOperations} scoped to an org and space. Every call starts from a fresh
+ * {@link DefaultCloudFoundryOperations.Builder}, so no builder state is shared between concurrent callers;
+ * the factory itself only holds the (thread-safe) clients and is immutable.
+ */
+public final class CfOperationsFactory {
+    private final CloudFoundryClient cloudFoundryClient;
+    private final DopplerClient dopplerClient;
+    private final UaaClient uaaClient;
+    private final Duration cacheDuration;
+
+    public CfOperationsFactory(CloudFoundryClient cloudFoundryClient, DopplerClient dopplerClient,
+                               UaaClient uaaClient, Duration cacheDuration) {
+        this.cloudFoundryClient = cloudFoundryClient;
+        this.dopplerClient = dopplerClient;
+        this.uaaClient = uaaClient;
+        this.cacheDuration = cacheDuration;
+    }
+
+    public CloudFoundryOperations create(String org, String space) {
+        return DefaultCloudFoundryOperations.builder()
+                .cloudFoundryClient(cloudFoundryClient)
+                .dopplerClient(dopplerClient)
+                .uaaClient(uaaClient)
+                .organization(org)
+                .space(space)
+                .cacheDuration(cacheDuration)
+                .build();
+    }
+}
@@ -1,37 +1,30 @@
 package org.tanzu.cfpulse.cf;
 
-import org.cloudfoundry.operations.CloudFoundryOperations;
-import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
 import org.cloudfoundry.operations.organizations.OrganizationSummary;
 import org.cloudfoundry.operations.spaces.SpaceSummary;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.time.Duration;
 
 @Service
 public class CfService {
-    private final DefaultCloudFoundryOperations.Builder defaultCloudFoundryOperationsBuilder;
+    private final FoundationRegistry foundations;
 
-    public CfService(DefaultCloudFoundryOperations.Builder defaultCloudFoundryOperationsBuilder) {
-        this.defaultCloudFoundryOperationsBuilder = defaultCloudFoundryOperationsBuilder;
+    public CfService(FoundationRegistry foundations) {
+        this.foundations = foundations;
     }
 
-    public CloudFoundryOperations createCloudFoundryOperations(String org, String space) {
-        DefaultCloudFoundryOperations.Builder builder = defaultCloudFoundryOperationsBuilder;
-        if (org != null && !org.isEmpty()) {
-            builder = builder.organization(org);
-        }
-        if (space != null && !space.isEmpty()) {
-            builder = builder.space(space);
-        }
-        return builder.build();
+    public Flux<OrganizationSummary> allOrgs(String foundation, Duration maxStaleness) {
+        return Mono.fromCallable(() -> foundations.get(foundation))
+                .flatMap(target -> target.inventory().organizations(maxStaleness))
+                .flatMapIterable(organizations -> organizations);
     }
 
-    public List<OrganizationSummary> allOrgs() {
-        return createCloudFoundryOperations(null, null).organizations().list().collectList().block();
-    }
-
-    public List<SpaceSummary> allSpaces(String org) {
-        return createCloudFoundryOperations(org, null).spaces().list().collectList().block();
+    public Flux<SpaceSummary> allSpaces(String foundation, String org, Duration maxStaleness) {
+        return Mono.fromCallable(() -> foundations.get(foundation))
+                .flatMap(target -> target.inventory().spaces(org, maxStaleness))
+                .flatMapIterable(spaces -> spaces);
     }
 }
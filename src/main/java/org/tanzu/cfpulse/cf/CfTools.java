@@ -1,7 +1,6 @@
 package org.tanzu.cfpulse.cf;
 
 import org.cloudfoundry.operations.CloudFoundryOperations;
-import org.cloudfoundry.operations.DefaultCloudFoundryOperations;
 import org.cloudfoundry.operations.applications.*;
 import org.cloudfoundry.operations.organizations.OrganizationSummary;
 import org.cloudfoundry.operations.services.*;
@@ -11,10 +10,24 @@ import org.cloudfoundry.operations.spaces.SpaceSummary;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.stereotype.Component;
+import org.tanzu.cfpulse.jobs.Job;
+import org.tanzu.cfpulse.jobs.JobService;
+import org.tanzu.cfpulse.jobs.JobStatus;
+import org.tanzu.cfpulse.mcp.ProjectedResult;
+import org.tanzu.cfpulse.push.ApplicationPusher;
+import org.tanzu.cfpulse.mcp.ResultProjector;
+import reactor.core.publisher.Mono;
 
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+
+import static org.tanzu.cfpulse.cf.FoundationRegistry.FOUNDATION_PARAM;
+import static org.tanzu.cfpulse.jobs.JobTools.RUNS_AS_JOB;
+import static org.tanzu.cfpulse.mcp.ResultProjector.FIELDS_PARAM;
+import static org.tanzu.cfpulse.mcp.ResultProjector.FORMAT_PARAM;
 
 @Component
 public class CfTools {
@@ -25,18 +38,19 @@ public class CfTools {
     private static final String APPLICATION_LIST = "Return the applications (apps) in my Cloud Foundry space";
     private static final String ORG_PARAM = "Name of the Cloud Foundry organization";
     private static final String SPACE_PARAM = "Name of the Cloud Foundry space";
+    private static final String MAX_STALENESS_PARAM = "Maximum age, in seconds, of cached inventory data that is acceptable. Use 0 to force a live lookup";
     private static final String APPLICATION_DETAILS = "Gets detailed information about a Cloud Foundry application";
-    private static final String PUSH_APPLICATION = "Push an application JAR file to the Cloud Foundry space.";
+    private static final String PUSH_APPLICATION = "Push an application JAR file to the Cloud Foundry space. " + RUNS_AS_JOB;
     private static final String NAME_PARAM = "Name of the Cloud Foundry application";
     private static final String PATH_PARAM = "Fully qualified directory pathname to the compiled JAR file for the application";
     private static final String NO_START_PARAM = "Set this flag to true if you want to explicitly prevent the app from starting after being pushed.";
-    private static final String SCALE_APPLICATION = "Scale the number of instances, memory, or disk size of an application. ";
+    private static final String SCALE_APPLICATION = "Scale the number of instances, memory, or disk size of an application. " + RUNS_AS_JOB;
     private static final String INSTANCES_PARAM = "The new number of instances of the Cloud Foundry application";
     private static final String MEMORY_PARAM = "The memory limit, in megabytes, of the Cloud Foundry application";
     private static final String DISK_PARAM = "The disk size, in megabytes, of the Cloud Foundry application";
-    private static final String START_APPLICATION = "Start a Cloud Foundry application";
+    private static final String START_APPLICATION = "Start a Cloud Foundry application. " + RUNS_AS_JOB;
     private static final String STOP_APPLICATION = "Stop a running Cloud Foundry application";
-    private static final String RESTART_APPLICATION = "Restart a running Cloud Foundry application";
+    private static final String RESTART_APPLICATION = "Restart a running Cloud Foundry application. " + RUNS_AS_JOB;
     private static final String DELETE_APPLICATION = "Delete a Cloud Foundry application";
     /*
         Organizations
@@ -61,36 +75,101 @@ public class CfTools {
     private static final String SPACE_LIST = "Returns the spaces in my Cloud Foundry organization (org)";
     private static final String GET_SPACE_QUOTA = "Returns a quota (set of resource limits) scoped to a Cloud Foundry space";
     private static final String SPACE_QUOTA_NAME_PARAM = "Name of the Cloud Foundry space quota";
-    private final DefaultCloudFoundryOperations.Builder defaultCloudFoundryOperationsBuilder;
+    /*
+        Default projections
+     */
+    private static final List<String> APPLICATION_SUMMARY_FIELDS = List.of("name", "requestedState", "runningInstances", "instances", "memoryLimit", "diskQuota", "urls");
+    private static final List<String> APPLICATION_DETAIL_FIELDS = List.of("name", "requestedState", "runningInstances", "instances", "memoryLimit", "diskQuota", "urls",
+            "buildpacks", "stack", "lastUploaded", "instanceDetails.index", "instanceDetails.state");
+    private static final List<String> SERVICE_INSTANCE_FIELDS = List.of("name", "service", "plan", "type", "applications", "lastOperation", "status", "message");
+    private static final List<String> SERVICE_OFFERING_FIELDS = List.of("label", "description", "servicePlans.name");
+    private final FoundationRegistry foundations;
+    private final InFlightReads inFlightReads;
+    private final JobService jobService;
+    private final ApplicationPusher pusher;
+    private final ResultProjector projector;
+
+    public CfTools(FoundationRegistry foundations, InFlightReads inFlightReads, JobService jobService,
+                   ApplicationPusher pusher, ResultProjector projector) {
+        this.foundations = foundations;
+        this.inFlightReads = inFlightReads;
+        this.jobService = jobService;
+        this.pusher = pusher;
+        this.projector = projector;
+    }
+
+    private Mono<Foundation> foundation(String name) {
+        return Mono.fromCallable(() -> foundations.get(name));
+    }
+
+    /**
+     * A read that concurrent calls of the same tool with the same arguments share, see {@link InFlightReads}.
+     */
+    private <T> Mono<T> read(String tool, String foundation, String org, String space,
+                             Function<Foundation, Mono<T>> query, Object... arguments) {
+        return foundation(foundation).flatMap(target -> inFlightReads.join(tool, target.name(), target.caller(), org, space,
+                () -> query.apply(target), arguments));
+    }
+
+    private static <T> Mono<T> execute(Foundation target, String org, String space, Function<CloudFoundryOperations, Mono<T>> operation) {
+        CfOperationsCache operationsCache = target.operationsCache();
+        return Mono.defer(() -> operation.apply(operationsCache.get(org, space)))
+                .doOnError(e -> operationsCache.evictOnError(org, space, e));
+    }
+
+    private Mono<Void> update(String foundation, String org, String space, Function<CloudFoundryOperations, Mono<Void>> operation) {
+        return foundation(foundation).flatMap(target -> update(target, org, space, operation));
+    }
+
+    private Mono<Void> update(Foundation target, String org, String space, Function<CloudFoundryOperations, Mono<Void>> operation) {
+        return execute(target, org, space, operation)
+                .doFinally(signal -> {
+                    foundations.invalidateSpace(target.name(), org, space);
+                    inFlightReads.invalidateSpace(target.name(), org, space);
+                });
+    }
 
-    public CfTools(DefaultCloudFoundryOperations.Builder defaultCloudFoundryOperationsBuilder) {
-        this.defaultCloudFoundryOperationsBuilder = defaultCloudFoundryOperationsBuilder;
+    private Mono<JobStatus> submit(String tool, String applicationName, String org, String space, String foundation,
+                                   Function<Job, Mono<?>> work) {
+        return foundation(foundation).map(target -> jobService.submit(tool, target.name(), org, space, applicationName, work));
     }
 
-    private CloudFoundryOperations cloudFoundryOperations(String org, String space) {
-        return defaultCloudFoundryOperationsBuilder.organization(org).space(space).build();
+    private static Duration staleness(Integer maxStaleness) {
+        return maxStaleness == null ? null : Duration.ofSeconds(maxStaleness);
     }
 
     @Tool(description = APPLICATION_LIST)
-    public List<ApplicationSummary> applicationsList(@ToolParam(description = ORG_PARAM) String org, @ToolParam(description = SPACE_PARAM) String space) {
-        return cloudFoundryOperations(org, space).applications().list().collectList().block();
+    public Mono<ProjectedResult> applicationsList(@ToolParam(description = ORG_PARAM) String org, @ToolParam(description = SPACE_PARAM) String space,
+                                                  @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                                  @ToolParam(description = MAX_STALENESS_PARAM, required = false) Integer maxStaleness,
+                                                  @ToolParam(description = FIELDS_PARAM, required = false) String fields,
+                                                  @ToolParam(description = FORMAT_PARAM, required = false) String format) {
+        return read("applicationsList", foundation, org, space,
+                target -> target.inventory().applications(org, space, staleness(maxStaleness)), maxStaleness)
+                .map(applications -> projector.project(applications, APPLICATION_SUMMARY_FIELDS, fields, format));
     }
 
     @Tool(description = APPLICATION_DETAILS)
-    public ApplicationDetail applicationDetails(@ToolParam(description = NAME_PARAM) String applicationName,
-                                                @ToolParam(description = ORG_PARAM) String org, @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<ProjectedResult> applicationDetails(@ToolParam(description = NAME_PARAM) String applicationName,
+                                                    @ToolParam(description = ORG_PARAM) String org, @ToolParam(description = SPACE_PARAM) String space,
+                                                    @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                                    @ToolParam(description = FIELDS_PARAM, required = false) String fields,
+                                                    @ToolParam(description = FORMAT_PARAM, required = false) String format) {
         GetApplicationRequest request = GetApplicationRequest.builder().name(applicationName).build();
-        return cloudFoundryOperations(org, space).applications().get(request).block();
+        return read("applicationDetails", foundation, org, space,
+                target -> execute(target, org, space, operations -> operations.applications().get(request)), applicationName)
+                .map(application -> projector.project(application, APPLICATION_DETAIL_FIELDS, fields, format));
     }
 
     @Tool(description = PUSH_APPLICATION)
-    public void pushApplication(@ToolParam(description = NAME_PARAM) String applicationName,
-                                @ToolParam(description = PATH_PARAM) String path,
-                                @ToolParam(description = NO_START_PARAM, required = false) Boolean noStart,
-                                @ToolParam(description = MEMORY_PARAM, required = false) Integer memory,
-                                @ToolParam(description = DISK_PARAM, required = false) Integer disk,
-                                @ToolParam(description = ORG_PARAM) String org,
-                                @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<JobStatus> pushApplication(@ToolParam(description = NAME_PARAM) String applicationName,
+                                      @ToolParam(description = PATH_PARAM) String path,
+                                      @ToolParam(description = NO_START_PARAM, required = false) Boolean noStart,
+                                      @ToolParam(description = MEMORY_PARAM, required = false) Integer memory,
+                                      @ToolParam(description = DISK_PARAM, required = false) Integer disk,
+                                      @ToolParam(description = ORG_PARAM) String org,
+                                      @ToolParam(description = SPACE_PARAM) String space,
+                                      @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
         PushApplicationRequest request = PushApplicationRequest.builder().
                 name(applicationName).
                 path(Paths.get(path)).
@@ -99,161 +178,206 @@ public class CfTools {
                 memory(memory).
                 diskQuota(disk).
                 build();
-        cloudFoundryOperations(org, space).applications().push(request).block();
-
         SetEnvironmentVariableApplicationRequest envRequest = SetEnvironmentVariableApplicationRequest.builder().
                 name(applicationName).variableName("JBP_CONFIG_OPEN_JDK_JRE").variableValue("{ jre: { version: 17.+ } }").
                 build();
-        cloudFoundryOperations(org, space).applications().setEnvironmentVariable(envRequest).block();
-
-        if (noStart == null || !noStart) {
-            StartApplicationRequest startApplicationRequest = StartApplicationRequest.builder().
-                    name(applicationName).
-                    build();
-            cloudFoundryOperations(org, space).applications().start(startApplicationRequest).block();
-        }
+        StartApplicationRequest startApplicationRequest = StartApplicationRequest.builder().
+                name(applicationName).
+                build();
+        boolean start = noStart == null || !noStart;
+        return submit("pushApplication", applicationName, org, space, foundation, job ->
+                foundation(foundation).flatMap(target -> update(target, org, space, operations ->
+                        pusher.push(target, operations, org, space, request, job)
+                                .then(job.step("configuring", operations.applications().setEnvironmentVariable(envRequest)))
+                                .then(start ? job.step("staging and starting", operations.applications().start(startApplicationRequest)) : Mono.empty()))));
     }
 
     @Tool(description = SCALE_APPLICATION)
-    public void scaleApplication(@ToolParam(description = NAME_PARAM) String applicationName,
-                                 @ToolParam(description = INSTANCES_PARAM, required = false) Integer instances,
-                                 @ToolParam(description = MEMORY_PARAM, required = false) Integer memory,
-                                 @ToolParam(description = DISK_PARAM, required = false) Integer disk,
-                                 @ToolParam(description = ORG_PARAM) String org,
-                                 @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<JobStatus> scaleApplication(@ToolParam(description = NAME_PARAM) String applicationName,
+                                            @ToolParam(description = INSTANCES_PARAM, required = false) Integer instances,
+                                            @ToolParam(description = MEMORY_PARAM, required = false) Integer memory,
+                                            @ToolParam(description = DISK_PARAM, required = false) Integer disk,
+                                            @ToolParam(description = ORG_PARAM) String org,
+                                            @ToolParam(description = SPACE_PARAM) String space,
+                                            @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
+        return submit("scaleApplication", applicationName, org, space, foundation,
+                job -> job.step("scaling", scale(applicationName, instances, memory, disk, org, space, foundation)));
+    }
+
+    public Mono<Void> scale(String applicationName, Integer instances, Integer memory, Integer disk,
+                            String org, String space, String foundation) {
         ScaleApplicationRequest scaleApplicationRequest = ScaleApplicationRequest.builder().
                 name(applicationName).
                 instances(instances).
                 diskLimit(disk).
                 memoryLimit(memory).
                 build();
-        cloudFoundryOperations(org, space).applications().scale(scaleApplicationRequest).block();
+        return update(foundation, org, space, operations -> operations.applications().scale(scaleApplicationRequest));
     }
 
     @Tool(description = START_APPLICATION)
-    public void startApplication(@ToolParam(description = NAME_PARAM) String applicationName,
-                                 @ToolParam(description = ORG_PARAM) String org,
-                                 @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<JobStatus> startApplication(@ToolParam(description = NAME_PARAM) String applicationName,
+                                            @ToolParam(description = ORG_PARAM) String org,
+                                            @ToolParam(description = SPACE_PARAM) String space,
+                                            @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
+        return submit("startApplication", applicationName, org, space, foundation,
+                job -> job.step("staging and starting", start(applicationName, org, space, foundation)));
+    }
+
+    public Mono<Void> start(String applicationName, String org, String space, String foundation) {
         StartApplicationRequest startApplicationRequest = StartApplicationRequest.builder().
                 name(applicationName).
                 build();
-        cloudFoundryOperations(org, space).applications().start(startApplicationRequest).block();
+        return update(foundation, org, space, operations -> operations.applications().start(startApplicationRequest));
     }
 
     @Tool(description = STOP_APPLICATION)
-    public void stopApplication(@ToolParam(description = NAME_PARAM) String applicationName,
-                                @ToolParam(description = ORG_PARAM) String org,
-                                @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<Void> stopApplication(@ToolParam(description = NAME_PARAM) String applicationName,
+                                      @ToolParam(description = ORG_PARAM) String org,
+                                      @ToolParam(description = SPACE_PARAM) String space,
+                                      @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
         StopApplicationRequest stopApplicationRequest = StopApplicationRequest.builder().
                 name(applicationName).
                 build();
-        cloudFoundryOperations(org, space).applications().stop(stopApplicationRequest).block();
+        return update(foundation, org, space, operations -> operations.applications().stop(stopApplicationRequest));
     }
 
     @Tool(description = RESTART_APPLICATION)
-    public void restartApplication(@ToolParam(description = NAME_PARAM) String applicationName,
-                                   @ToolParam(description = ORG_PARAM) String org,
-                                   @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<JobStatus> restartApplication(@ToolParam(description = NAME_PARAM) String applicationName,
+                                              @ToolParam(description = ORG_PARAM) String org,
+                                              @ToolParam(description = SPACE_PARAM) String space,
+                                              @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
+        return submit("restartApplication", applicationName, org, space, foundation,
+                job -> job.step("restarting", restart(applicationName, org, space, foundation)));
+    }
+
+    public Mono<Void> restart(String applicationName, String org, String space, String foundation) {
         RestartApplicationRequest request = RestartApplicationRequest.builder().name(applicationName).build();
-        cloudFoundryOperations(org, space).applications().restart(request).block();
+        return update(foundation, org, space, operations -> operations.applications().restart(request));
     }
 
     @Tool(description = DELETE_APPLICATION)
-    public void deleteApplication(@ToolParam(description = NAME_PARAM) String applicationName,
-                                  @ToolParam(description = ORG_PARAM) String org,
-                                  @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<Void> deleteApplication(@ToolParam(description = NAME_PARAM) String applicationName,
+                                        @ToolParam(description = ORG_PARAM) String org,
+                                        @ToolParam(description = SPACE_PARAM) String space,
+                                        @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
         DeleteApplicationRequest deleteApplicationRequest = DeleteApplicationRequest.builder().
                 name(applicationName).
                 build();
-        cloudFoundryOperations(org, space).applications().delete(deleteApplicationRequest).block();
+        return update(foundation, org, space, operations -> operations.applications().delete(deleteApplicationRequest));
     }
 
     @Tool(description = ORGANIZATION_LIST)
-    public List<OrganizationSummary> organizationsList(@ToolParam(description = ORG_PARAM, required = false) String org,
-                                                       @ToolParam(description = SPACE_PARAM, required = false) String space) {
-        return cloudFoundryOperations(org, space).organizations().list().collectList().block();
+    public Mono<List<OrganizationSummary>> organizationsList(@ToolParam(description = ORG_PARAM, required = false) String org,
+                                                             @ToolParam(description = SPACE_PARAM, required = false) String space,
+                                                             @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                                             @ToolParam(description = MAX_STALENESS_PARAM, required = false) Integer maxStaleness) {
+        return read("organizationsList", foundation, null, null,
+                target -> target.inventory().organizations(staleness(maxStaleness)), maxStaleness);
     }
 
     @Tool(description = SERVICE_INSTANCE_LIST)
-    public List<ServiceInstanceSummary> serviceInstancesList(@ToolParam(description = ORG_PARAM) String org,
-                                                             @ToolParam(description = SPACE_PARAM) String space) {
-        return cloudFoundryOperations(org, space).services().listInstances().collectList().block();
+    public Mono<List<ServiceInstanceSummary>> serviceInstancesList(@ToolParam(description = ORG_PARAM) String org,
+                                                                   @ToolParam(description = SPACE_PARAM) String space,
+                                                                   @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                                                   @ToolParam(description = MAX_STALENESS_PARAM, required = false) Integer maxStaleness) {
+        return read("serviceInstancesList", foundation, org, space,
+                target -> target.inventory().serviceInstances(org, space, staleness(maxStaleness)), maxStaleness);
     }
 
     @Tool(description = SERVICE_INSTANCE_DETAIL)
-    public ServiceInstance serviceInstanceDetails(@ToolParam(description = NAME_PARAM) String serviceInstanceName,
-                                                  @ToolParam(description = ORG_PARAM) String org,
-                                                  @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<ProjectedResult> serviceInstanceDetails(@ToolParam(description = NAME_PARAM) String serviceInstanceName,
+                                                        @ToolParam(description = ORG_PARAM) String org,
+                                                        @ToolParam(description = SPACE_PARAM) String space,
+                                                        @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                                        @ToolParam(description = FIELDS_PARAM, required = false) String fields,
+                                                        @ToolParam(description = FORMAT_PARAM, required = false) String format) {
         GetServiceInstanceRequest request = GetServiceInstanceRequest.builder().name(serviceInstanceName).build();
-        return cloudFoundryOperations(org, space).services().getInstance(request).block();
+        return read("serviceInstanceDetails", foundation, org, space,
+                target -> execute(target, org, space, operations -> operations.services().getInstance(request)), serviceInstanceName)
+                .map(serviceInstance -> projector.project(serviceInstance, SERVICE_INSTANCE_FIELDS, fields, format));
     }
 
     @Tool(description = SERVICE_OFFERINGS_LIST)
-    public List<ServiceOffering> serviceOfferingsList(@ToolParam(description = ORG_PARAM) String org,
-                                                      @ToolParam(description = SPACE_PARAM) String space) {
-        ListServiceOfferingsRequest request = ListServiceOfferingsRequest.builder().build();
-        return cloudFoundryOperations(org, space).services().listServiceOfferings(request).collectList().block();
+    public Mono<ProjectedResult> serviceOfferingsList(@ToolParam(description = ORG_PARAM) String org,
+                                                      @ToolParam(description = SPACE_PARAM) String space,
+                                                      @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                                      @ToolParam(description = MAX_STALENESS_PARAM, required = false) Integer maxStaleness,
+                                                      @ToolParam(description = FIELDS_PARAM, required = false) String fields,
+                                                      @ToolParam(description = FORMAT_PARAM, required = false) String format) {
+        return read("serviceOfferingsList", foundation, org, space,
+                target -> target.inventory().serviceOfferings(org, space, staleness(maxStaleness)), maxStaleness)
+                .map(serviceOfferings -> projector.project(serviceOfferings, SERVICE_OFFERING_FIELDS, fields, format));
     }
 
     @Tool(description = BIND_SERVICE_INSTANCE)
-    public void bindServiceInstance(@ToolParam(description = SI_NAME_PARAM) String serviceInstanceName,
-                                    @ToolParam(description = NAME_PARAM) String applicationName,
-                                    @ToolParam(description = ORG_PARAM) String org,
-                                    @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<Void> bindServiceInstance(@ToolParam(description = SI_NAME_PARAM) String serviceInstanceName,
+                                          @ToolParam(description = NAME_PARAM) String applicationName,
+                                          @ToolParam(description = ORG_PARAM) String org,
+                                          @ToolParam(description = SPACE_PARAM) String space,
+                                          @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
         BindServiceInstanceRequest request = BindServiceInstanceRequest.builder().
                 serviceInstanceName(serviceInstanceName).
                 applicationName(applicationName).
                 build();
-        cloudFoundryOperations(org, space).services().bind(request).block();
+        return update(foundation, org, space, operations -> operations.services().bind(request));
     }
 
     @Tool(description = UNBIND_SERVICE_INSTANCE)
-    public void unbindServiceInstance(@ToolParam(description = SI_NAME_PARAM) String serviceInstanceName,
-                                      @ToolParam(description = NAME_PARAM) String applicationName,
-                                      @ToolParam(description = ORG_PARAM) String org,
-                                      @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<Void> unbindServiceInstance(@ToolParam(description = SI_NAME_PARAM) String serviceInstanceName,
+                                            @ToolParam(description = NAME_PARAM) String applicationName,
+                                            @ToolParam(description = ORG_PARAM) String org,
+                                            @ToolParam(description = SPACE_PARAM) String space,
+                                            @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
         UnbindServiceInstanceRequest request = UnbindServiceInstanceRequest.builder().
                 serviceInstanceName(serviceInstanceName).
                 applicationName(applicationName).
                 build();
-        cloudFoundryOperations(org, space).services().unbind(request).block();
+        return update(foundation, org, space, operations -> operations.services().unbind(request));
     }
 
     @Tool(description = DELETE_SERVICE_INSTANCE)
-    public void deleteServiceInstance(@ToolParam(description = SI_NAME_PARAM) String serviceInstanceName,
-                                      @ToolParam(description = ORG_PARAM) String org,
-                                      @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<Void> deleteServiceInstance(@ToolParam(description = SI_NAME_PARAM) String serviceInstanceName,
+                                            @ToolParam(description = ORG_PARAM) String org,
+                                            @ToolParam(description = SPACE_PARAM) String space,
+                                            @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
         DeleteServiceInstanceRequest request = DeleteServiceInstanceRequest.builder().
                 name(serviceInstanceName).
                 build();
-        cloudFoundryOperations(org, space).services().deleteInstance(request).block();
+        return update(foundation, org, space, operations -> operations.services().deleteInstance(request));
     }
 
     @Tool(description = CREATE_USER_PROVIDED_SERVICE_INSTANCE)
-    public void createUserProvidedServiceInstance(@ToolParam(description = SI_NAME_PARAM) String serviceInstanceName,
-                                                  @ToolParam(description = CREDENTIALS_PARAM) Map<String, String> credentials,
-                                                  @ToolParam(description = TAGS_PARAM, required = false) List<String> tags,
-                                                  @ToolParam(description = ORG_PARAM) String org,
-                                                  @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<Void> createUserProvidedServiceInstance(@ToolParam(description = SI_NAME_PARAM) String serviceInstanceName,
+                                                        @ToolParam(description = CREDENTIALS_PARAM) Map<String, String> credentials,
+                                                        @ToolParam(description = TAGS_PARAM, required = false) List<String> tags,
+                                                        @ToolParam(description = ORG_PARAM) String org,
+                                                        @ToolParam(description = SPACE_PARAM) String space,
+                                                        @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
         CreateUserProvidedServiceInstanceRequest request = CreateUserProvidedServiceInstanceRequest.builder().
                 name(serviceInstanceName).
                 credentials(credentials).
                 tags(tags).
                 build();
-        cloudFoundryOperations(org, space).services().createUserProvidedInstance(request).block();
+        return update(foundation, org, space, operations -> operations.services().createUserProvidedInstance(request));
     }
 
     @Tool(description = SPACE_LIST)
-    public List<SpaceSummary> spacesList(@ToolParam(description = ORG_PARAM) String org,
-                                         @ToolParam(description = SPACE_PARAM, required = false) String space) {
-        return cloudFoundryOperations(org, space).spaces().list().collectList().block();
+    public Mono<List<SpaceSummary>> spacesList(@ToolParam(description = ORG_PARAM) String org,
+                                               @ToolParam(description = SPACE_PARAM, required = false) String space,
+                                               @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                               @ToolParam(description = MAX_STALENESS_PARAM, required = false) Integer maxStaleness) {
+        return read("spacesList", foundation, org, null,
+                target -> target.inventory().spaces(org, staleness(maxStaleness)), maxStaleness);
     }
 
     @Tool(description = GET_SPACE_QUOTA)
-    public SpaceQuota getSpaceQuota(@ToolParam(description = SPACE_QUOTA_NAME_PARAM) String spaceName,
-                                    @ToolParam(description = ORG_PARAM) String org,
-                                    @ToolParam(description = SPACE_PARAM) String space) {
+    public Mono<SpaceQuota> getSpaceQuota(@ToolParam(description = SPACE_QUOTA_NAME_PARAM) String spaceName,
+                                          @ToolParam(description = ORG_PARAM) String org,
+                                          @ToolParam(description = SPACE_PARAM) String space,
+                                          @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation) {
         GetSpaceQuotaRequest request = GetSpaceQuotaRequest.builder().name(spaceName).build();
-        return cloudFoundryOperations(org, space).spaceAdmin().get(request).block();
+        return read("getSpaceQuota", foundation, org, space,
+                target -> execute(target, org, space, operations -> operations.spaceAdmin().get(request)), spaceName);
     }
 }
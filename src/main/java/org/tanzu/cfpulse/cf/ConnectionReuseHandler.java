@@ -0,0 +1,47 @@
+package org.tanzu.cfpulse.cf;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+
+/**
+ * cf-java-client disposes the connection as soon as it has read a response body, which closes the channel rather
+ * than returning it to the pool, so every Cloud Controller request paid for a new connection and TLS handshake. This
+ * handler ignores a close requested while the last chunk of a keep-alive response is being delivered; Reactor Netty
+ * then releases the connection to the pool as it does for any completed exchange. Every other close goes through.
+ */
+final class ConnectionReuseHandler extends ChannelDuplexHandler {
+    static final String NAME = "cfpulse.connectionReuse";
+
+    private boolean keepAlive;
+    private boolean completing;
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof HttpResponse response) {
+            keepAlive = HttpUtil.isKeepAlive(response);
+        }
+        if (!(msg instanceof LastHttpContent) || !keepAlive) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        completing = true;
+        try {
+            ctx.fireChannelRead(msg);
+        } finally {
+            completing = false;
+        }
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        if (completing) {
+            promise.setSuccess();
+            return;
+        }
+        super.close(ctx, promise);
+    }
+}
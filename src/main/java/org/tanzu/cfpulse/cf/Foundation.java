@@ -0,0 +1,30 @@
+package org.tanzu.cfpulse.cf;
+
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.doppler.DopplerClient;
+import org.cloudfoundry.reactor.DefaultConnectionContext;
+import org.cloudfoundry.reactor.TokenProvider;
+import org.cloudfoundry.uaa.UaaClient;
+import org.tanzu.cfpulse.doppler.DopplerStreams;
+import org.tanzu.cfpulse.inventory.CfInventory;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Everything cfpulse holds for one Cloud Foundry foundation: its connection context and token, the clients built on
+ * them, and the operations cache, inventory and Doppler streams that must never mix with another foundation's.
+ * {@code caller} is null for the configured account and identifies the user otherwise, see
+ * {@link FoundationRegistry#get}.
+ */
+public record Foundation(String name,
+                         String caller,
+                         String apiHost,
+                         HttpClient httpClient,
+                         DefaultConnectionContext connectionContext,
+                         TokenProvider tokenProvider,
+                         CloudFoundryClient cloudFoundryClient,
+                         DopplerClient dopplerClient,
+                         UaaClient uaaClient,
+                         CfOperationsCache operationsCache,
+                         CfInventory inventory,
+                         DopplerStreams dopplerStreams) {
+}
@@ -0,0 +1,64 @@
+package org.tanzu.cfpulse.cf;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The Cloud Foundry foundations to connect to. The top-level {@code cf.apiHost}, {@code cf.username} and
+ * {@code cf.password} describe the foundation named {@code default}; more are added under
+ * {@code cf.foundations.<name>}. A named foundation inherits {@code secure} and {@code skipSslValidation} from the
+ * top level unless it sets them itself, but never the host or the credentials.
+ */
+@ConfigurationProperties("cf")
+public record FoundationProperties(String apiHost,
+                                   Integer port,
+                                   @DefaultValue("true") boolean secure,
+                                   String username,
+                                   String password,
+                                   boolean skipSslValidation,
+                                   String defaultFoundation,
+                                   Map<String, Connection> foundations) {
+
+    static final String DEFAULT = "default";
+
+    /**
+     * The configured foundations by name, the top-level one first.
+     */
+    Map<String, Connection> connections() {
+        Map<String, Connection> connections = new LinkedHashMap<>();
+        if (hasText(apiHost) || foundations == null || foundations.isEmpty()) {
+            connections.put(DEFAULT, new Connection(apiHost, port, secure, username, password, skipSslValidation));
+        }
+        if (foundations != null) {
+            foundations.forEach((name, connection) -> connections.put(name, new Connection(connection.apiHost(),
+                    connection.port(),
+                    connection.secure() != null ? connection.secure() : secure,
+                    connection.username(),
+                    connection.password(),
+                    connection.skipSslValidation() != null ? connection.skipSslValidation() : skipSslValidation)));
+        }
+        return connections;
+    }
+
+    /**
+     * The foundation tools act on when none is named: {@code cf.defaultFoundation}, else the top-level one if it is
+     * configured, else the first of {@code cf.foundations}.
+     */
+    String defaultName(Map<String, Connection> connections) {
+        if (hasText(defaultFoundation)) {
+            return defaultFoundation;
+        }
+        return connections.keySet().iterator().next();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    public record Connection(String apiHost, Integer port, Boolean secure, String username, String password,
+                             Boolean skipSslValidation) {
+    }
+}
@@ -0,0 +1,280 @@
+package org.tanzu.cfpulse.cf;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import jakarta.annotation.PreDestroy;
+import org.cloudfoundry.reactor.DefaultConnectionContext;
+import org.cloudfoundry.reactor.TokenProvider;
+import org.cloudfoundry.reactor.client.ReactorCloudFoundryClient;
+import org.cloudfoundry.reactor.doppler.ReactorDopplerClient;
+import org.cloudfoundry.reactor.tokenprovider.PasswordGrantTokenProvider;
+import org.cloudfoundry.reactor.uaa.ReactorUaaClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.tanzu.cfpulse.doppler.DopplerStreams;
+import org.tanzu.cfpulse.inventory.CfInventory;
+import org.tanzu.cfpulse.tokens.CallerToken;
+import org.tanzu.cfpulse.tokens.CallerTokenFilter;
+import org.tanzu.cfpulse.tokens.RefreshingTokenProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The configured foundations, each with its own connection context, token provider, clients and caches. All of them
+ * share the connection pool and event loops of {@code cfHttpClient}, so another foundation costs a few caches rather
+ * than another process. Tools name a foundation, or leave it out to act on the default one.
+ */
+@Component
+public class FoundationRegistry {
+    public static final String FOUNDATION_PARAM = "Name of the Cloud Foundry foundation. Leave it out to use the default foundation";
+    private static final Logger logger = LoggerFactory.getLogger(FoundationRegistry.class);
+
+    private final Map<String, Foundation> foundations;
+    private final String defaultName;
+    private final long operationsCacheSize;
+    private final Duration operationsCacheTtl;
+    private final Duration inventoryMaxStaleness;
+    private final Duration inventoryFullResyncInterval;
+    private final long inventoryMaximumEntries;
+    private final int inventoryPageSize;
+    private final int inventoryConcurrency;
+    private final Duration dopplerLinger;
+    private final Duration tokenRefreshBefore;
+    private final Cache<CallerKey, Foundation> callers;
+
+    public FoundationRegistry(FoundationProperties properties,
+                              HttpClient cfHttpClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${cf.http.sslHandshakeTimeout:10s}") Duration sslHandshakeTimeout,
+                              @Value("${cf.operations.cache.maximumSize:256}") long operationsCacheSize,
+                              @Value("${cf.operations.cache.ttl:10m}") Duration operationsCacheTtl,
+                              @Value("${cf.inventory.maxStaleness:5m}") Duration inventoryMaxStaleness,
+                              @Value("${cf.inventory.fullResyncInterval:10m}") Duration inventoryFullResyncInterval,
+                              @Value("${cf.inventory.maximumEntries:2000}") long inventoryMaximumEntries,
+                              @Value("${cf.inventory.pageSize:100}") int inventoryPageSize,
+                              @Value("${cf.inventory.concurrency:8}") int inventoryConcurrency,
+                              @Value("${cf.doppler.linger:60s}") Duration dopplerLinger,
+                              @Value("${cf.tokens.refreshBefore:2m}") Duration tokenRefreshBefore,
+                              @Value("${cf.tokens.callers.maximumSize:100}") long callersMaximumSize,
+                              @Value("${cf.tokens.callers.idleTimeout:30m}") Duration callersIdleTimeout) {
+        this.operationsCacheSize = operationsCacheSize;
+        this.operationsCacheTtl = operationsCacheTtl;
+        this.inventoryMaxStaleness = inventoryMaxStaleness;
+        this.inventoryFullResyncInterval = inventoryFullResyncInterval;
+        this.inventoryMaximumEntries = inventoryMaximumEntries;
+        this.inventoryPageSize = inventoryPageSize;
+        this.inventoryConcurrency = inventoryConcurrency;
+        this.dopplerLinger = dopplerLinger;
+        this.tokenRefreshBefore = tokenRefreshBefore;
+        Map<String, FoundationProperties.Connection> connections = properties.connections();
+        Map<String, Foundation> foundations = new LinkedHashMap<>();
+        connections.forEach((name, connection) -> {
+            HttpClient httpClient = Boolean.TRUE.equals(connection.secure())
+                    ? secure(cfHttpClient, Boolean.TRUE.equals(connection.skipSslValidation()), sslHandshakeTimeout)
+                    : cfHttpClient;
+            DefaultConnectionContext connectionContext = DefaultConnectionContext.builder()
+                    .apiHost(connection.apiHost() == null ? "" : connection.apiHost())
+                    .port(Optional.ofNullable(connection.port()))
+                    .secure(Boolean.TRUE.equals(connection.secure()))
+                    .httpClient(httpClient)
+                    .build();
+            TokenProvider tokenProvider = new RefreshingTokenProvider(PasswordGrantTokenProvider.builder()
+                    .username(connection.username() == null ? "" : connection.username())
+                    .password(connection.password() == null ? "" : connection.password())
+                    .build());
+            foundations.put(name, foundation(name, null, connection.apiHost(), httpClient, connectionContext,
+                    tokenProvider, meterRegistry));
+        });
+        this.foundations = Collections.unmodifiableMap(foundations);
+        this.defaultName = properties.defaultName(connections);
+        if (!foundations.containsKey(defaultName)) {
+            throw new IllegalStateException("cf.defaultFoundation %s is not one of the configured foundations %s"
+                    .formatted(defaultName, foundations.keySet()));
+        }
+        this.callers = Caffeine.newBuilder()
+                .maximumSize(callersMaximumSize)
+                .expireAfterAccess(callersIdleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, callers, "cfCallerFoundations");
+    }
+
+    /**
+     * The named foundation, or the default one when {@code name} is null or blank. When the caller forwarded a token
+     * (see {@link CallerTokenFilter}) this is the caller's own view of the foundation: clients using that token, with
+     * their own operations cache, inventory and Doppler streams, on the foundation's connection pool. The
+     * {@code cf.tokens.callers.maximumSize} most recently active of those are kept, each until it has been idle for
+     * {@code cf.tokens.callers.idleTimeout}.
+     */
+    public Foundation get(String name) {
+        return forCaller(configured(name));
+    }
+
+    /**
+     * The named foundation, or every foundation when {@code name} is null or blank, for queries that fan out.
+     */
+    public List<Foundation> select(String name) {
+        return name == null || name.isBlank()
+                ? foundations.values().stream().map(this::forCaller).toList()
+                : List.of(get(name));
+    }
+
+    /**
+     * The foundations as seen by the configured accounts.
+     */
+    public Collection<Foundation> all() {
+        return foundations.values();
+    }
+
+    public String defaultName() {
+        return defaultName;
+    }
+
+    public boolean isConfigured(String name) {
+        return foundations.containsKey(name);
+    }
+
+    /**
+     * Whether the configured account or a caller has the org in the inventory of the named foundation, or of any
+     * foundation when {@code name} is null or blank.
+     */
+    public boolean knowsOrganization(@Nullable String name, String org) {
+        boolean any = name == null || name.isBlank();
+        return foundations.values().stream()
+                .filter(foundation -> any || foundation.name().equals(name))
+                .anyMatch(foundation -> foundation.inventory().knowsOrganization(org))
+                || callers.asMap().entrySet().stream()
+                .filter(entry -> any || entry.getKey().foundation().equals(name))
+                .anyMatch(entry -> entry.getValue().inventory().knowsOrganization(org));
+    }
+
+    /**
+     * Drops what the configured account and every caller know about a space of the named foundation, after one of
+     * them changed it.
+     */
+    public void invalidateSpace(String name, String org, String space) {
+        configured(name).inventory().invalidateSpace(org, space);
+        callers.asMap().forEach((key, foundation) -> {
+            if (key.foundation().equals(name)) {
+                foundation.inventory().invalidateSpace(org, space);
+            }
+        });
+    }
+
+    /**
+     * Syncs the inventories of all foundations, and of the callers' views of them that are still cached, side by
+     * side, so a slow foundation does not delay the others. A caller's inventory syncs with the caller's token; once
+     * that has expired its syncs fail and its entries simply age out.
+     */
+    @Scheduled(fixedDelayString = "${cf.inventory.refreshInterval:30s}",
+            initialDelayString = "${cf.inventory.refreshInterval:30s}")
+    public void refreshInventories() {
+        Flux.concat(Flux.fromIterable(foundations.values()), Flux.fromIterable(List.copyOf(callers.asMap().values())))
+                .flatMap(foundation -> Mono.fromRunnable(foundation.inventory()::refresh)
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .blockLast();
+    }
+
+    /**
+     * Renews the tokens of the configured accounts that expire within {@code cf.tokens.refreshBefore}, so tool calls
+     * never wait for UAA. Callers' tokens are theirs to renew.
+     */
+    @Scheduled(fixedDelayString = "${cf.tokens.refreshCheckInterval:30s}",
+            initialDelayString = "${cf.tokens.refreshCheckInterval:30s}")
+    public void refreshTokens() {
+        Flux.fromIterable(foundations.values())
+                .filter(foundation -> foundation.tokenProvider() instanceof RefreshingTokenProvider)
+                .flatMap(foundation -> ((RefreshingTokenProvider) foundation.tokenProvider())
+                        .refreshIfExpiring(foundation.connectionContext(), tokenRefreshBefore)
+                        .doOnNext(token -> logger.debug("Refreshed the token of {}", foundation.name()))
+                        .doOnError(e -> logger.warn("Token refresh of {} failed: {}", foundation.name(), e.getMessage()))
+                        .onErrorComplete())
+                .blockLast();
+    }
+
+    @PreDestroy
+    public void dispose() {
+        foundations.values().forEach(foundation -> foundation.connectionContext().dispose());
+    }
+
+    private Foundation configured(String name) {
+        if (name == null || name.isBlank()) {
+            return foundations.get(defaultName);
+        }
+        Foundation foundation = foundations.get(name);
+        if (foundation == null) {
+            throw new IllegalArgumentException("Foundation %s is not configured, use one of %s"
+                    .formatted(name, foundations.keySet()));
+        }
+        return foundation;
+    }
+
+    private Foundation forCaller(Foundation foundation) {
+        String token = CallerToken.current();
+        if (token == null) {
+            return foundation;
+        }
+        String caller = CallerToken.id();
+        return callers.get(new CallerKey(foundation.name(), caller), key -> foundation(foundation.name(), caller,
+                foundation.apiHost(), foundation.httpClient(), foundation.connectionContext(),
+                connectionContext -> Mono.just("bearer " + token), null));
+    }
+
+    /**
+     * Builds the clients and caches of a foundation for one account. Callers' caches are built without a registry and
+     * not published as metrics: they come and go with the callers, and {@code cfCallerFoundations} already shows how
+     * many there are.
+     */
+    private Foundation foundation(String name, String caller, String apiHost, HttpClient httpClient,
+                                  DefaultConnectionContext connectionContext, TokenProvider tokenProvider,
+                                  @Nullable MeterRegistry meterRegistry) {
+        ReactorCloudFoundryClient cloudFoundryClient = ReactorCloudFoundryClient.builder()
+                .connectionContext(connectionContext)
+                .tokenProvider(tokenProvider)
+                .build();
+        ReactorDopplerClient dopplerClient = ReactorDopplerClient.builder()
+                .connectionContext(connectionContext)
+                .tokenProvider(tokenProvider)
+                .build();
+        ReactorUaaClient uaaClient = ReactorUaaClient.builder()
+                .connectionContext(connectionContext)
+                .tokenProvider(tokenProvider)
+                .build();
+        CfOperationsCache operationsCache = new CfOperationsCache(name,
+                new CfOperationsFactory(cloudFoundryClient, dopplerClient, uaaClient, operationsCacheTtl),
+                meterRegistry, operationsCacheSize, operationsCacheTtl);
+        CfInventory inventory = new CfInventory(name, cloudFoundryClient, operationsCache, meterRegistry,
+                inventoryMaxStaleness, inventoryFullResyncInterval, inventoryMaximumEntries,
+                inventoryPageSize, inventoryConcurrency);
+        return new Foundation(name, caller, apiHost, httpClient, connectionContext, tokenProvider, cloudFoundryClient,
+                dopplerClient, uaaClient, operationsCache, inventory, new DopplerStreams(dopplerClient, dopplerLinger));
+    }
+
+    private static HttpClient secure(HttpClient httpClient, boolean skipSslValidation, Duration handshakeTimeout) {
+        Http11SslContextSpec sslContext = skipSslValidation
+                ? Http11SslContextSpec.forClient().configure(builder -> builder.trustManager(InsecureTrustManagerFactory.INSTANCE))
+                : Http11SslContextSpec.forClient();
+        return httpClient.secure(ssl -> ssl.sslContext(sslContext).handshakeTimeout(handshakeTimeout));
+    }
+
+    private record CallerKey(String foundation, String caller) {
+    }
+}
@@ -0,0 +1,71 @@
+package org.tanzu.cfpulse.cf;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for read-only tools: concurrent calls with the same tool and arguments share one in-flight
+ * {@link Mono}, so a burst of identical questions costs the Cloud Controller one round trip. An entry lives only
+ * while its call is running; the result is multicast to everyone who joined and then forgotten. The Cloud Controller
+ * requests are attributed to the call that started them, the others join for free and are counted as
+ * {@code mcp.tool.coalesced}. Calls only join reads made with the same account, a caller never gets another
+ * caller's answer.
+ */
+@Component
+public class InFlightReads {
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    public InFlightReads(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> join(String tool, String foundation, String caller, String org, String space,
+                            Supplier<Mono<T>> read, Object... arguments) {
+        return Mono.defer(() -> {
+            Key key = new Key(tool, foundation, caller, org, space, Arrays.asList(arguments));
+            Mono<?> running = inFlight.get(key);
+            if (running != null) {
+                coalesced(tool).increment();
+                return (Mono<T>) running;
+            }
+            return (Mono<T>) inFlight.computeIfAbsent(key, k -> share(k, read));
+        });
+    }
+
+    /**
+     * Makes later calls for a space start over instead of joining a read that began before a change to it.
+     */
+    public void invalidateSpace(String foundation, String org, String space) {
+        inFlight.keySet().removeIf(key -> Objects.equals(key.foundation(), foundation)
+                && Objects.equals(key.org(), org) && Objects.equals(key.space(), space));
+    }
+
+    private <T> Mono<T> share(Key key, Supplier<Mono<T>> read) {
+        AtomicReference<Mono<T>> shared = new AtomicReference<>();
+        shared.set(Mono.defer(read)
+                .doFinally(signal -> inFlight.remove(key, shared.get()))
+                .share());
+        return shared.get();
+    }
+
+    private Counter coalesced(String tool) {
+        return Counter.builder("mcp.tool.coalesced")
+                .tag("tool", tool)
+                .register(meterRegistry);
+    }
+
+    private record Key(String tool, String foundation, String caller, String org, String space, List<?> arguments) {
+    }
+}
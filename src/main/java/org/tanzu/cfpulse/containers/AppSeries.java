@@ -0,0 +1,83 @@
+package org.tanzu.cfpulse.containers;
+
+import org.cloudfoundry.doppler.ContainerMetric;
+import org.cloudfoundry.doppler.Envelope;
+import org.cloudfoundry.doppler.EventType;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The instance series of one watched app and the Doppler subscription that fills them. Instances beyond
+ * {@code maximumInstances} are not recorded.
+ */
+final class AppSeries {
+    private final int samples;
+    private final int maximumInstances;
+    private final Instant since = Instant.now();
+    private final Map<Integer, InstanceSeries> instances = new ConcurrentHashMap<>();
+    private Disposable subscription;
+
+    AppSeries(int samples, int maximumInstances) {
+        this.samples = samples;
+        this.maximumInstances = maximumInstances;
+    }
+
+    Instant since() {
+        return since;
+    }
+
+    synchronized void subscribe(Flux<Envelope> envelopes, Runnable onTerminate) {
+        if (subscription == null) {
+            subscription = envelopes
+                    .filter(envelope -> envelope.getEventType() == EventType.CONTAINER_METRIC && envelope.getContainerMetric() != null)
+                    .doFinally(signal -> onTerminate.run())
+                    .subscribe(this::add, e -> {
+                    });
+        }
+    }
+
+    synchronized void dispose() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * The samples of every instance taken at or after {@code from}, by instance index.
+     */
+    Map<Integer, InstanceSeries.Samples> since(Instant from) {
+        Map<Integer, InstanceSeries.Samples> snapshot = new TreeMap<>();
+        instances.forEach((index, series) -> snapshot.put(index, series.since(from.toEpochMilli())));
+        return snapshot;
+    }
+
+    private void add(Envelope envelope) {
+        ContainerMetric metric = envelope.getContainerMetric();
+        if (metric.getInstanceIndex() == null) {
+            return;
+        }
+        InstanceSeries series = instances.get(metric.getInstanceIndex());
+        if (series == null) {
+            if (instances.size() >= maximumInstances) {
+                return;
+            }
+            series = instances.computeIfAbsent(metric.getInstanceIndex(), index -> new InstanceSeries(samples));
+        }
+        long timestamp = envelope.getTimestamp() == null ? System.currentTimeMillis() : envelope.getTimestamp() / 1_000_000;
+        series.add(timestamp, value(metric.getCpuPercentage()), value(metric.getMemoryBytes()), value(metric.getDiskBytes()),
+                value(metric.getMemoryBytesQuota()), value(metric.getDiskBytesQuota()));
+    }
+
+    private static double value(Double value) {
+        return value == null ? 0 : value;
+    }
+
+    private static long value(Long value) {
+        return value == null ? 0 : value;
+    }
+}
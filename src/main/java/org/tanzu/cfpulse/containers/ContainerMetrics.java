@@ -0,0 +1,29 @@
+package org.tanzu.cfpulse.containers;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Container metrics of the instances of one app over a window. Memory and disk are in MiB.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContainerMetrics(String applicationName, String window, Instant watchingSince,
+                               List<InstanceMetrics> instances) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record InstanceMetrics(int instance, int samples, Instant from, Instant to, MetricStats cpuPercent,
+                                  MetricStats memoryMb, MetricStats diskMb, Double memoryQuotaMb, Double diskQuotaMb) {
+    }
+
+    public record Anomalies(String applicationName, String window, int instances, List<Anomaly> anomalies) {
+    }
+
+    public record Anomaly(int instance, String metric, Kind kind, String detail) {
+    }
+
+    public enum Kind {
+        NEAR_QUOTA, SATURATED, GROWING_TOWARDS_QUOTA, SPIKE, OUTLIER
+    }
+}
@@ -0,0 +1,180 @@
+package org.tanzu.cfpulse.containers;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tanzu.cfpulse.cf.Foundation;
+import org.tanzu.cfpulse.cf.FoundationRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keeps rolling container metrics for the apps that are being asked about. An app is watched from the first call
+ * for it until it has not been asked for during {@code cf.containerMetrics.idleTimeout}; at most
+ * {@code cf.containerMetrics.maximumApps} apps are watched, with at most {@code cf.containerMetrics.maximumInstances}
+ * instances each and {@code cf.containerMetrics.samples} samples per instance, so memory stays bounded whatever is
+ * asked. The samples come from the shared Doppler stream of the app.
+ */
+@Component
+public class ContainerMetricsService {
+    private static final double MIB = 1024 * 1024;
+    private static final double QUOTA_THRESHOLD = 0.9;
+    private static final double CPU_THRESHOLD = 90;
+    private static final double SPIKE_DEVIATIONS = 3;
+    private static final double OUTLIER_FACTOR = 2;
+    private static final int MIN_SAMPLES = 5;
+
+    private final FoundationRegistry foundations;
+    private final int samples;
+    private final int maximumInstances;
+    private final Cache<AppKey, AppSeries> watched;
+
+    public ContainerMetricsService(FoundationRegistry foundations,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${cf.containerMetrics.samples:256}") int samples,
+                                   @Value("${cf.containerMetrics.maximumApps:50}") long maximumApps,
+                                   @Value("${cf.containerMetrics.maximumInstances:64}") int maximumInstances,
+                                   @Value("${cf.containerMetrics.idleTimeout:1h}") Duration idleTimeout) {
+        this.foundations = foundations;
+        this.samples = samples;
+        this.maximumInstances = maximumInstances;
+        this.watched = Caffeine.newBuilder()
+                .maximumSize(maximumApps)
+                .expireAfterAccess(idleTimeout)
+                .scheduler(Scheduler.systemScheduler())
+                .<AppKey, AppSeries>removalListener((key, series, cause) -> {
+                    if (series != null) {
+                        series.dispose();
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, watched, "cfContainerMetrics");
+    }
+
+    public Mono<ContainerMetrics> metrics(String foundation, String org, String space, String applicationName,
+                                          Duration window) {
+        return watch(foundation, org, space, applicationName)
+                .map(series -> new ContainerMetrics(applicationName, window.toString(), series.since(),
+                        instances(series, window)));
+    }
+
+    public Mono<ContainerMetrics.Anomalies> anomalies(String foundation, String org, String space,
+                                                      String applicationName, Duration window) {
+        return watch(foundation, org, space, applicationName)
+                .map(series -> instances(series, window))
+                .map(instances -> new ContainerMetrics.Anomalies(applicationName, window.toString(), instances.size(),
+                        anomalies(instances)));
+    }
+
+    private Mono<AppSeries> watch(String foundation, String org, String space, String applicationName) {
+        return Mono.fromCallable(() -> foundations.get(foundation))
+                .flatMap(target -> target.inventory().applicationId(org, space, applicationName)
+                        .map(applicationId -> watch(target, new AppKey(target.name(), target.caller(), applicationId))));
+    }
+
+    private AppSeries watch(Foundation target, AppKey key) {
+        AppSeries series = watched.get(key, k -> new AppSeries(samples, maximumInstances));
+        series.subscribe(target.dopplerStreams().stream(key.applicationId()),
+                () -> watched.asMap().remove(key, series));
+        return series;
+    }
+
+    private static List<ContainerMetrics.InstanceMetrics> instances(AppSeries series, Duration window) {
+        List<ContainerMetrics.InstanceMetrics> instances = new ArrayList<>();
+        for (Map.Entry<Integer, InstanceSeries.Samples> entry : series.since(Instant.now().minus(window)).entrySet()) {
+            InstanceSeries.Samples samples = entry.getValue();
+            if (samples.size() == 0) {
+                continue;
+            }
+            long[] timestamps = samples.timestamps();
+            instances.add(new ContainerMetrics.InstanceMetrics(entry.getKey(), samples.size(),
+                    Instant.ofEpochMilli(timestamps[0]), Instant.ofEpochMilli(timestamps[timestamps.length - 1]),
+                    MetricStats.of(timestamps, samples.cpu(), 1),
+                    MetricStats.of(timestamps, samples.memory(), MIB),
+                    MetricStats.of(timestamps, samples.disk(), MIB),
+                    quota(samples.memoryQuota()), quota(samples.diskQuota())));
+        }
+        return instances;
+    }
+
+    private static Double quota(long bytes) {
+        return bytes <= 0 ? null : Math.round(bytes / MIB * 100) / 100d;
+    }
+
+    private static List<ContainerMetrics.Anomaly> anomalies(List<ContainerMetrics.InstanceMetrics> instances) {
+        List<ContainerMetrics.Anomaly> anomalies = new ArrayList<>();
+        for (ContainerMetrics.InstanceMetrics instance : instances) {
+            nearQuota(anomalies, instance, "memory", instance.memoryMb(), instance.memoryQuotaMb());
+            nearQuota(anomalies, instance, "disk", instance.diskMb(), instance.diskQuotaMb());
+            if (instance.cpuPercent().p95() >= CPU_THRESHOLD) {
+                anomalies.add(new ContainerMetrics.Anomaly(instance.instance(), "cpu", ContainerMetrics.Kind.SATURATED,
+                        "p95 CPU is %.1f%%".formatted(instance.cpuPercent().p95())));
+            }
+            if (instance.samples() >= MIN_SAMPLES) {
+                MetricStats memory = instance.memoryMb();
+                if (instance.memoryQuotaMb() != null && memory.trendPerHour() > 0
+                        && memory.latest() + memory.trendPerHour() >= instance.memoryQuotaMb()) {
+                    anomalies.add(new ContainerMetrics.Anomaly(instance.instance(), "memory",
+                            ContainerMetrics.Kind.GROWING_TOWARDS_QUOTA,
+                            "%.1f MiB, growing %.1f MiB per hour towards the %.0f MiB quota"
+                                    .formatted(memory.latest(), memory.trendPerHour(), instance.memoryQuotaMb())));
+                }
+                spike(anomalies, instance, "cpu", instance.cpuPercent());
+                spike(anomalies, instance, "memory", memory);
+            }
+        }
+        outliers(anomalies, instances, "cpu", ContainerMetrics.InstanceMetrics::cpuPercent);
+        outliers(anomalies, instances, "memory", ContainerMetrics.InstanceMetrics::memoryMb);
+        return anomalies;
+    }
+
+    private static void nearQuota(List<ContainerMetrics.Anomaly> anomalies, ContainerMetrics.InstanceMetrics instance,
+                                  String metric, MetricStats stats, Double quota) {
+        if (quota != null && stats.p95() >= quota * QUOTA_THRESHOLD) {
+            anomalies.add(new ContainerMetrics.Anomaly(instance.instance(), metric, ContainerMetrics.Kind.NEAR_QUOTA,
+                    "p95 %s is %.1f MiB of a %.0f MiB quota".formatted(metric, stats.p95(), quota)));
+        }
+    }
+
+    private static void spike(List<ContainerMetrics.Anomaly> anomalies, ContainerMetrics.InstanceMetrics instance,
+                              String metric, MetricStats stats) {
+        if (stats.stddev() > 0 && stats.latest() > stats.mean() + SPIKE_DEVIATIONS * stats.stddev()) {
+            anomalies.add(new ContainerMetrics.Anomaly(instance.instance(), metric, ContainerMetrics.Kind.SPIKE,
+                    "latest %s %.1f against a mean of %.1f".formatted(metric, stats.latest(), stats.mean())));
+        }
+    }
+
+    /**
+     * Instances whose mean is far above the median of the instance means, which points at uneven load or a leak in
+     * one instance rather than a sizing problem.
+     */
+    private static void outliers(List<ContainerMetrics.Anomaly> anomalies, List<ContainerMetrics.InstanceMetrics> instances,
+                                 String metric, Function<ContainerMetrics.InstanceMetrics, MetricStats> stats) {
+        if (instances.size() < 3) {
+            return;
+        }
+        double[] means = instances.stream().mapToDouble(instance -> stats.apply(instance).mean()).sorted().toArray();
+        double median = means[means.length / 2];
+        for (ContainerMetrics.InstanceMetrics instance : instances) {
+            double mean = stats.apply(instance).mean();
+            if (median > 0 && mean > median * OUTLIER_FACTOR) {
+                anomalies.add(new ContainerMetrics.Anomaly(instance.instance(), metric, ContainerMetrics.Kind.OUTLIER,
+                        "mean %s %.1f against a median of %.1f across instances".formatted(metric, mean, median)));
+            }
+        }
+    }
+
+    private record AppKey(String foundation, String caller, String applicationId) {
+    }
+}
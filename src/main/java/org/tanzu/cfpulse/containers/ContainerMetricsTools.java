@@ -0,0 +1,55 @@
+package org.tanzu.cfpulse.containers;
+
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.tanzu.cfpulse.cf.FoundationRegistry.FOUNDATION_PARAM;
+
+@Component
+public class ContainerMetricsTools {
+
+    private static final String CONTAINER_METRICS = "Return CPU, memory and disk statistics for each instance of a Cloud Foundry " +
+            "application over a recent window: latest, mean, standard deviation, 50th/95th/99th percentiles, maximum and trend per hour. " +
+            "Metrics are collected from the first time an application is asked for, so the first call may return few or no samples";
+    private static final String CONTAINER_METRIC_ANOMALIES = "Flag instances of a Cloud Foundry application that look under-provisioned " +
+            "or unhealthy over a recent window: memory or disk near quota, CPU saturated, memory growing towards its quota, " +
+            "sudden spikes and instances far above the others";
+    private static final String NAME_PARAM = "Name of the Cloud Foundry application";
+    private static final String ORG_PARAM = "Name of the Cloud Foundry organization";
+    private static final String SPACE_PARAM = "Name of the Cloud Foundry space";
+    private static final String WINDOW_PARAM = "How far back to look, e.g. 5m or 1h. Defaults to 5m";
+    private final ContainerMetricsService containerMetricsService;
+
+    public ContainerMetricsTools(ContainerMetricsService containerMetricsService) {
+        this.containerMetricsService = containerMetricsService;
+    }
+
+    @Tool(description = CONTAINER_METRICS)
+    public Mono<ContainerMetrics> containerMetrics(@ToolParam(description = NAME_PARAM) String applicationName,
+                                                   @ToolParam(description = ORG_PARAM) String org,
+                                                   @ToolParam(description = SPACE_PARAM) String space,
+                                                   @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                                   @ToolParam(description = WINDOW_PARAM, required = false) String window) {
+        return Mono.fromCallable(() -> window(window))
+                .flatMap(duration -> containerMetricsService.metrics(foundation, org, space, applicationName, duration));
+    }
+
+    @Tool(description = CONTAINER_METRIC_ANOMALIES)
+    public Mono<ContainerMetrics.Anomalies> containerMetricAnomalies(@ToolParam(description = NAME_PARAM) String applicationName,
+                                                                     @ToolParam(description = ORG_PARAM) String org,
+                                                                     @ToolParam(description = SPACE_PARAM) String space,
+                                                                     @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                                                     @ToolParam(description = WINDOW_PARAM, required = false) String window) {
+        return Mono.fromCallable(() -> window(window))
+                .flatMap(duration -> containerMetricsService.anomalies(foundation, org, space, applicationName, duration));
+    }
+
+    private static Duration window(String window) {
+        return window == null || window.isBlank() ? Duration.ofMinutes(5) : DurationStyle.detectAndParse(window);
+    }
+}
@@ -0,0 +1,64 @@
+package org.tanzu.cfpulse.containers;
+
+/**
+ * Fixed-size rings of the most recent container metrics of one app instance, kept in primitive arrays so a sample
+ * costs 32 bytes and nothing is allocated as samples arrive.
+ */
+final class InstanceSeries {
+    private final long[] timestamps;
+    private final double[] cpu;
+    private final long[] memory;
+    private final long[] disk;
+    private long memoryQuota;
+    private long diskQuota;
+    private int next;
+    private int size;
+
+    InstanceSeries(int capacity) {
+        this.timestamps = new long[capacity];
+        this.cpu = new double[capacity];
+        this.memory = new long[capacity];
+        this.disk = new long[capacity];
+    }
+
+    synchronized void add(long timestamp, double cpuPercentage, long memoryBytes, long diskBytes,
+                          long memoryBytesQuota, long diskBytesQuota) {
+        timestamps[next] = timestamp;
+        cpu[next] = cpuPercentage;
+        memory[next] = memoryBytes;
+        disk[next] = diskBytes;
+        memoryQuota = memoryBytesQuota;
+        diskQuota = diskBytesQuota;
+        next = (next + 1) % timestamps.length;
+        size = Math.min(size + 1, timestamps.length);
+    }
+
+    /**
+     * The samples taken at or after {@code from} (epoch milliseconds), oldest first.
+     */
+    synchronized Samples since(long from) {
+        int start = (next - size + timestamps.length) % timestamps.length;
+        int skip = 0;
+        while (skip < size && timestamps[(start + skip) % timestamps.length] < from) {
+            skip++;
+        }
+        int count = size - skip;
+        Samples samples = new Samples(new long[count], new double[count], new double[count], new double[count],
+                memoryQuota, diskQuota);
+        for (int i = 0; i < count; i++) {
+            int index = (start + skip + i) % timestamps.length;
+            samples.timestamps()[i] = timestamps[index];
+            samples.cpu()[i] = cpu[index];
+            samples.memory()[i] = memory[index];
+            samples.disk()[i] = disk[index];
+        }
+        return samples;
+    }
+
+    record Samples(long[] timestamps, double[] cpu, double[] memory, double[] disk, long memoryQuota, long diskQuota) {
+
+        int size() {
+            return timestamps.length;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.tanzu.cfpulse.containers;
+
+import java.util.Arrays;
+
+/**
+ * Summary of one metric of one instance over a window. {@code trendPerHour} is the least-squares slope of the
+ * samples, in the metric's unit per hour.
+ */
+public record MetricStats(double latest, double mean, double stddev, double p50, double p95, double p99, double max,
+                          double trendPerHour) {
+
+    private static final double MILLIS_PER_HOUR = 3_600_000d;
+
+    /**
+     * @param timestamps sample times in epoch milliseconds, oldest first
+     * @param values     the samples, divided by {@code scale} for reporting
+     */
+    static MetricStats of(long[] timestamps, double[] values, double scale) {
+        int n = values.length;
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        double mean = sum / n;
+        double squares = 0;
+        double covariance = 0;
+        double timeVariance = 0;
+        double meanTime = 0;
+        for (long timestamp : timestamps) {
+            meanTime += (double) (timestamp - timestamps[0]) / n;
+        }
+        for (int i = 0; i < n; i++) {
+            double deviation = values[i] - mean;
+            double time = timestamps[i] - timestamps[0] - meanTime;
+            squares += deviation * deviation;
+            covariance += time * deviation;
+            timeVariance += time * time;
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double slope = timeVariance == 0 ? 0 : covariance / timeVariance * MILLIS_PER_HOUR;
+        return new MetricStats(round(values[n - 1] / scale), round(mean / scale), round(Math.sqrt(squares / n) / scale),
+                round(percentile(sorted, 50) / scale), round(percentile(sorted, 95) / scale),
+                round(percentile(sorted, 99) / scale), round(sorted[n - 1] / scale), round(slope / scale));
+    }
+
+    private static double percentile(double[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100d * sorted.length);
+        return sorted[Math.clamp(rank - 1, 0, sorted.length - 1)];
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100d;
+    }
+}
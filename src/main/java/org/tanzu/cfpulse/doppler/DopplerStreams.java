@@ -0,0 +1,42 @@
+package org.tanzu.cfpulse.doppler;
+
+import org.cloudfoundry.doppler.DopplerClient;
+import org.cloudfoundry.doppler.Envelope;
+import org.cloudfoundry.doppler.StreamRequest;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shares one upstream {@link DopplerClient#stream(StreamRequest)} subscription per application between all of its
+ * readers. The subscription is opened for the first reader, kept open for {@code cf.doppler.linger} after the last
+ * one leaves so that repeated tool calls do not reconnect, and then closed. Each foundation has its own.
+ */
+public class DopplerStreams {
+    private final DopplerClient dopplerClient;
+    private final Duration linger;
+    private final Map<String, Flux<Envelope>> streams = new ConcurrentHashMap<>();
+
+    public DopplerStreams(DopplerClient dopplerClient, Duration linger) {
+        this.dopplerClient = dopplerClient;
+        this.linger = linger;
+    }
+
+    public Flux<Envelope> stream(String applicationId) {
+        return streams.computeIfAbsent(applicationId, this::share);
+    }
+
+    private Flux<Envelope> share(String applicationId) {
+        AtomicReference<Flux<Envelope>> shared = new AtomicReference<>();
+        shared.set(dopplerClient.stream(StreamRequest.builder().applicationId(applicationId).build())
+                .retryWhen(Retry.backoff(5, Duration.ofSeconds(1)))
+                .doFinally(signal -> streams.remove(applicationId, shared.get()))
+                .publish()
+                .refCount(1, linger));
+        return shared.get();
+    }
+}
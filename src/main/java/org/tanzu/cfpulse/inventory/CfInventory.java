@@ -0,0 +1,496 @@
+package org.tanzu.cfpulse.inventory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v3.PaginatedResponse;
+import org.cloudfoundry.client.v3.Relationship;
+import org.cloudfoundry.client.v3.Resource;
+import org.cloudfoundry.client.v3.applications.ListApplicationsRequest;
+import org.cloudfoundry.client.v3.auditevents.AuditEventResource;
+import org.cloudfoundry.client.v3.auditevents.ListAuditEventsRequest;
+import org.cloudfoundry.client.v3.organizations.ListOrganizationsRequest;
+import org.cloudfoundry.client.v3.serviceinstances.ListServiceInstancesRequest;
+import org.cloudfoundry.client.v3.serviceofferings.ListServiceOfferingsRequest;
+import org.cloudfoundry.client.v3.spaces.ListSpacesRequest;
+import org.cloudfoundry.operations.CloudFoundryOperations;
+import org.cloudfoundry.operations.applications.ApplicationSummary;
+import org.cloudfoundry.operations.organizations.OrganizationSummary;
+import org.cloudfoundry.operations.services.ServiceInstanceSummary;
+import org.cloudfoundry.operations.services.ServiceOffering;
+import org.cloudfoundry.operations.spaces.SpaceSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.tanzu.cfpulse.cf.CfOperationsCache;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory snapshot of the orgs, spaces, apps, service instances and service offerings that have been asked for.
+ * Entries are loaded on first use and kept current by a background sync that only walks the Cloud Controller
+ * resources whose {@code updated_at} (or, for audit events, {@code created_at}) is newer than the last sync,
+ * reloading just the affected entries. A periodic full resync catches anything the incremental feeds miss.
+ * Space-scoped entries remember the GUID of their space, which is how the feeds find them; an entry whose space could
+ * not be resolved is never matched by a sync, so only its own age counts towards its staleness.
+ * There is one inventory per foundation and caller; {@link org.tanzu.cfpulse.cf.FoundationRegistry} creates them and
+ * schedules their syncs. It is published as metrics when it gets a registry.
+ */
+public class CfInventory {
+    private static final Logger logger = LoggerFactory.getLogger(CfInventory.class);
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(1);
+    private static final List<String> AUDIT_EVENT_TYPES = List.of(
+            "audit.app.delete-request",
+            "audit.app.process.crash",
+            "audit.app.process.scale",
+            "audit.organization.delete-request",
+            "audit.space.delete-request",
+            "audit.service_instance.delete",
+            "audit.user_provided_service_instance.delete");
+
+    private final CloudFoundryClient cloudFoundryClient;
+    private final CfOperationsCache operationsCache;
+    private final Duration defaultMaxStaleness;
+    private final Duration fullResyncInterval;
+    private final int pageSize;
+    private final int concurrency;
+    private final Cache<Key, Entry> entries;
+    private final Map<Feed, Watermark> watermarks = new EnumMap<>(Feed.class);
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile Instant syncedAt = Instant.EPOCH;
+    private volatile Instant resyncedAt = Instant.now();
+
+    public CfInventory(String foundation,
+                       CloudFoundryClient cloudFoundryClient,
+                       CfOperationsCache operationsCache,
+                       @Nullable MeterRegistry meterRegistry,
+                       Duration defaultMaxStaleness,
+                       Duration fullResyncInterval,
+                       long maximumEntries,
+                       int pageSize,
+                       int concurrency) {
+        this.cloudFoundryClient = cloudFoundryClient;
+        this.operationsCache = operationsCache;
+        this.defaultMaxStaleness = defaultMaxStaleness;
+        this.fullResyncInterval = fullResyncInterval;
+        this.pageSize = pageSize;
+        this.concurrency = concurrency;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumEntries)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, entries, "cfInventory." + foundation);
+        }
+    }
+
+    public Mono<List<OrganizationSummary>> organizations(Duration maxStaleness) {
+        return get(new Key(Kind.ORGANIZATIONS, null, null), maxStaleness);
+    }
+
+    public Mono<List<SpaceSummary>> spaces(String org, Duration maxStaleness) {
+        return get(new Key(Kind.SPACES, org, null), maxStaleness);
+    }
+
+    public Mono<List<ApplicationSummary>> applications(String org, String space, Duration maxStaleness) {
+        return get(new Key(Kind.APPLICATIONS, org, space), maxStaleness);
+    }
+
+    public Mono<List<ServiceInstanceSummary>> serviceInstances(String org, String space, Duration maxStaleness) {
+        return get(new Key(Kind.SERVICE_INSTANCES, org, space), maxStaleness);
+    }
+
+    public Mono<List<ServiceOffering>> serviceOfferings(String org, String space, Duration maxStaleness) {
+        return get(new Key(Kind.SERVICE_OFFERINGS, org, space), maxStaleness);
+    }
+
+    /**
+     * Resolves an app name to its GUID, looking the space up live once if the app is not in the snapshot yet.
+     */
+    public Mono<String> applicationId(String org, String space, String name) {
+        return applications(org, space, null)
+                .flatMap(applications -> Mono.justOrEmpty(applicationId(applications, name)))
+                .switchIfEmpty(Mono.defer(() -> applications(org, space, Duration.ZERO)
+                        .flatMap(applications -> Mono.justOrEmpty(applicationId(applications, name)))))
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Application %s does not exist".formatted(name))));
+    }
+
+    private static String applicationId(List<ApplicationSummary> applications, String name) {
+        return applications.stream()
+                .filter(application -> application.getName().equals(name))
+                .map(ApplicationSummary::getId)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Whether the org is in the snapshot, listed among the orgs or with entries of its own. Only what loaded
+     * successfully is kept, so a name that does not exist is never known.
+     */
+    public boolean knowsOrganization(String org) {
+        return organizationNames().containsValue(org)
+                || entries.asMap().keySet().stream().anyMatch(key -> org.equals(key.org()));
+    }
+
+    /**
+     * Drops the app and service instance entries of a space, e.g. after a tool changed something in it. Lookups that
+     * were already under way when this is called still answer their callers but are not cached.
+     */
+    public void invalidateSpace(String org, String space) {
+        invalidations.incrementAndGet();
+        entries.asMap().keySet().removeIf(key -> (key.kind() == Kind.APPLICATIONS || key.kind() == Kind.SERVICE_INSTANCES)
+                && Objects.equals(key.org(), org) && Objects.equals(key.space(), space));
+    }
+
+    public synchronized void refresh() {
+        if (entries.asMap().isEmpty()) {
+            watermarks.clear();
+            return;
+        }
+        Instant started = Instant.now();
+        boolean fullResync = started.isAfter(resyncedAt.plus(fullResyncInterval));
+        Map<Feed, Watermark> pending = new EnumMap<>(Feed.class);
+        try {
+            Changes changes = collectChanges(pending).block();
+            Set<Key> keys = fullResync ? Set.copyOf(entries.asMap().keySet()) : affectedKeys(changes);
+            Flux.fromIterable(keys)
+                    .flatMap(this::reload, concurrency)
+                    .blockLast();
+            watermarks.putAll(pending);
+            syncedAt = started;
+            if (fullResync) {
+                resyncedAt = started;
+            }
+            logger.debug("Inventory sync reloaded {} of {} entries", keys.size(), entries.estimatedSize());
+        } catch (RuntimeException e) {
+            logger.warn("Inventory sync failed, keeping the previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<List<T>> get(Key key, Duration maxStaleness) {
+        Entry entry = entries.getIfPresent(key);
+        Duration staleness = maxStaleness != null ? maxStaleness : defaultMaxStaleness;
+        if (entry != null && !verifiedAt(key, entry).plus(staleness).isBefore(Instant.now())) {
+            return Mono.just((List<T>) entry.values());
+        }
+        long generation = invalidations.get();
+        return load(key, null)
+                .doOnNext(loaded -> {
+                    if (invalidations.get() == generation) {
+                        entries.put(key, loaded);
+                    }
+                })
+                .map(loaded -> (List<T>) loaded.values());
+    }
+
+    private Instant verifiedAt(Key key, Entry entry) {
+        Instant synced = syncedAt;
+        if (key.kind() != Kind.SERVICE_OFFERINGS && key.isSpaceScoped() && entry.spaceId() == null) {
+            return entry.fetchedAt();
+        }
+        return entry.fetchedAt().isAfter(synced) ? entry.fetchedAt() : synced;
+    }
+
+    private Mono<Entry> load(Key key, String knownSpaceId) {
+        CloudFoundryOperations operations = operationsCache.get(key.org(), key.space());
+        Flux<?> values = switch (key.kind()) {
+            case ORGANIZATIONS -> operations.organizations().list();
+            case SPACES -> operations.spaces().list();
+            case APPLICATIONS -> operations.applications().list();
+            case SERVICE_INSTANCES -> operations.services().listInstances();
+            case SERVICE_OFFERINGS -> operations.services().listServiceOfferings(
+                    org.cloudfoundry.operations.services.ListServiceOfferingsRequest.builder().build());
+        };
+        Mono<Optional<String>> spaceId = knownSpaceId != null ? Mono.just(Optional.of(knownSpaceId))
+                : key.isSpaceScoped() ? spaceId(key.org(), key.space()).map(Optional::of).defaultIfEmpty(Optional.empty())
+                : Mono.just(Optional.empty());
+        return Mono.zip(values.collectList(), spaceId)
+                .map(loaded -> new Entry(List.copyOf(loaded.getT1()), Instant.now(), loaded.getT2().orElse(null)))
+                .doOnError(e -> operationsCache.evictOnError(key.org(), key.space(), e));
+    }
+
+    /**
+     * The GUID of a space, from the tracked spaces of its org when they are there, otherwise looked up. Empty when
+     * it cannot be resolved.
+     */
+    private Mono<String> spaceId(String org, String space) {
+        if (org == null || space == null) {
+            return Mono.empty();
+        }
+        Entry tracked = entries.getIfPresent(new Key(Kind.SPACES, org, null));
+        if (tracked != null) {
+            String id = tracked.values().stream()
+                    .map(SpaceSummary.class::cast)
+                    .filter(summary -> summary.getName().equals(space))
+                    .map(SpaceSummary::getId)
+                    .findFirst()
+                    .orElse(null);
+            if (id != null) {
+                return Mono.just(id);
+            }
+        }
+        return cloudFoundryClient.organizationsV3().list(ListOrganizationsRequest.builder().name(org).build())
+                .flatMap(organizations -> Mono.justOrEmpty(organizations.getResources().stream().findFirst()))
+                .flatMap(organization -> cloudFoundryClient.spacesV3().list(ListSpacesRequest.builder()
+                        .name(space).organizationId(organization.getId()).build()))
+                .flatMap(spaces -> Mono.justOrEmpty(spaces.getResources().stream().findFirst()))
+                .map(Resource::getId)
+                .onErrorResume(e -> {
+                    logger.debug("Could not resolve space {}/{}: {}", org, space, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> reload(Key key) {
+        Entry previous = entries.getIfPresent(key);
+        return load(key, previous == null ? null : previous.spaceId())
+                .doOnNext(entry -> {
+                    entries.put(key, entry);
+                    if (previous != null) {
+                        forgetRemoved(key, previous, entry);
+                    }
+                })
+                .onErrorResume(e -> {
+                    logger.debug("Dropping inventory entry {}: {}", key, e.getMessage());
+                    entries.invalidate(key);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void forgetRemoved(Key key, Entry previous, Entry current) {
+        if (key.kind() == Kind.ORGANIZATIONS) {
+            Set<String> names = names(current, OrganizationSummary.class, OrganizationSummary::getName);
+            names(previous, OrganizationSummary.class, OrganizationSummary::getName).stream()
+                    .filter(name -> !names.contains(name))
+                    .forEach(this::forgetOrganization);
+        } else if (key.kind() == Kind.SPACES) {
+            Set<String> names = names(current, SpaceSummary.class, SpaceSummary::getName);
+            names(previous, SpaceSummary.class, SpaceSummary::getName).stream()
+                    .filter(name -> !names.contains(name))
+                    .forEach(name -> forgetSpace(key.org(), name));
+        }
+    }
+
+    private void forgetOrganization(String org) {
+        entries.asMap().keySet().removeIf(key -> key.kind() != Kind.ORGANIZATIONS && Objects.equals(key.org(), org));
+        operationsCache.invalidateOrganization(org);
+    }
+
+    private void forgetSpace(String org, String space) {
+        entries.asMap().keySet().removeIf(key -> key.isSpaceScoped()
+                && Objects.equals(key.org(), org) && Objects.equals(key.space(), space));
+        operationsCache.invalidateSpace(org, space);
+    }
+
+    private Set<Key> affectedKeys(Changes changes) {
+        Set<Key> tracked = entries.asMap().keySet();
+        Map<String, String> organizationNames = organizationNames();
+        Set<Key> keys = new HashSet<>();
+        if (!changes.organizationIds.isEmpty()) {
+            keys.add(new Key(Kind.ORGANIZATIONS, null, null));
+        }
+        for (String organizationId : changes.spaceListOrganizationIds) {
+            String org = organizationNames.get(organizationId);
+            tracked.stream()
+                    .filter(key -> key.kind() == Kind.SPACES && (org == null || Objects.equals(key.org(), org)))
+                    .forEach(keys::add);
+        }
+        entries.asMap().forEach((key, entry) -> {
+            if (key.isSpaceScoped() && entry.spaceId() != null && changes.spaceIds.contains(entry.spaceId())) {
+                keys.add(key);
+            }
+        });
+        if (changes.serviceOfferings) {
+            tracked.stream()
+                    .filter(key -> key.kind() == Kind.SERVICE_OFFERINGS)
+                    .forEach(keys::add);
+        }
+        keys.retainAll(tracked);
+        return keys;
+    }
+
+    private Map<String, String> organizationNames() {
+        Entry entry = entries.getIfPresent(new Key(Kind.ORGANIZATIONS, null, null));
+        if (entry == null) {
+            return Map.of();
+        }
+        return entry.values().stream()
+                .map(OrganizationSummary.class::cast)
+                .collect(Collectors.toMap(OrganizationSummary::getId, OrganizationSummary::getName, (a, b) -> a));
+    }
+
+    private Mono<Changes> collectChanges(Map<Feed, Watermark> pending) {
+        Changes changes = new Changes();
+        return Flux.concat(
+                        feed(Feed.ORGANIZATIONS, pending,
+                                page -> cloudFoundryClient.organizationsV3().list(ListOrganizationsRequest.builder()
+                                        .orderBy("-updated_at").perPage(pageSize).page(page).build()),
+                                Resource::getUpdatedAt,
+                                organization -> changes.organizationIds.add(organization.getId())),
+                        feed(Feed.SPACES, pending,
+                                page -> cloudFoundryClient.spacesV3().list(ListSpacesRequest.builder()
+                                        .orderBy("-updated_at").perPage(pageSize).page(page).build()),
+                                Resource::getUpdatedAt,
+                                space -> {
+                                    changes.spaceIds.add(space.getId());
+                                    changes.spaceListOrganizationIds.add(space.getRelationships().getOrganization().getData().getId());
+                                }),
+                        feed(Feed.APPLICATIONS, pending,
+                                page -> cloudFoundryClient.applicationsV3().list(ListApplicationsRequest.builder()
+                                        .orderBy("-updated_at").perPage(pageSize).page(page).build()),
+                                Resource::getUpdatedAt,
+                                application -> changes.spaceIds.add(application.getRelationships().getSpace().getData().getId())),
+                        feed(Feed.SERVICE_INSTANCES, pending,
+                                page -> cloudFoundryClient.serviceInstancesV3().list(ListServiceInstancesRequest.builder()
+                                        .orderBy("-updated_at").perPage(pageSize).page(page).build()),
+                                Resource::getUpdatedAt,
+                                serviceInstance -> changes.spaceIds.add(serviceInstance.getRelationships().getSpace().getData().getId())),
+                        feed(Feed.SERVICE_OFFERINGS, pending,
+                                page -> cloudFoundryClient.serviceOfferingsV3().list(ListServiceOfferingsRequest.builder()
+                                        .orderBy("-updated_at").perPage(pageSize).page(page).build()),
+                                Resource::getUpdatedAt,
+                                serviceOffering -> changes.serviceOfferings = true),
+                        feed(Feed.AUDIT_EVENTS, pending,
+                                page -> cloudFoundryClient.auditEventsV3().list(ListAuditEventsRequest.builder()
+                                        .types(AUDIT_EVENT_TYPES).orderBy("-created_at").perPage(pageSize).page(page).build()),
+                                Resource::getCreatedAt,
+                                event -> auditEventChange(event, changes)))
+                .then(Mono.just(changes));
+    }
+
+    private void auditEventChange(AuditEventResource event, Changes changes) {
+        Relationship organization = event.getOrganizationRelationship();
+        Relationship space = event.getSpaceRelationship();
+        switch (event.getType()) {
+            case "audit.organization.delete-request" -> changes.organizationIds.add(event.getAuditEventTarget().getId());
+            case "audit.space.delete-request" -> {
+                changes.spaceIds.add(event.getAuditEventTarget().getId());
+                if (organization != null && organization.getId() != null) {
+                    changes.spaceListOrganizationIds.add(organization.getId());
+                }
+            }
+            default -> {
+                if (space != null && space.getId() != null) {
+                    changes.spaceIds.add(space.getId());
+                }
+            }
+        }
+    }
+
+    private <R extends Resource> Mono<Void> feed(Feed feed, Map<Feed, Watermark> pending,
+                                                 IntFunction<Mono<? extends PaginatedResponse<R>>> pages,
+                                                 Function<R, String> timestamp,
+                                                 Consumer<R> onChange) {
+        Watermark watermark = watermarks.computeIfAbsent(feed, f -> new Watermark(initialWatermark(), Set.of()));
+        pending.put(feed, watermark);
+        return changedSince(watermark.at(), pages, timestamp, 1)
+                .filter(resource -> !watermark.seen(Instant.parse(timestamp.apply(resource)), resource.getId()))
+                .doOnNext(resource -> pending.compute(feed, (f, current) ->
+                        current.advance(Instant.parse(timestamp.apply(resource)), resource.getId())))
+                .doOnNext(onChange)
+                .then();
+    }
+
+    /**
+     * Walks a listing ordered newest first and stops at the first page that reaches back past {@code watermark}.
+     * Timestamps only have second precision, so resources stamped with the watermark itself are included; the feed
+     * skips the ones it already took in an earlier sync (see {@link Watermark}).
+     */
+    private <R extends Resource> Flux<R> changedSince(Instant watermark,
+                                                      IntFunction<Mono<? extends PaginatedResponse<R>>> pages,
+                                                      Function<R, String> timestamp,
+                                                      int page) {
+        return pages.apply(page).flatMapMany(response -> {
+            List<R> changed = response.getResources().stream()
+                    .filter(resource -> !Instant.parse(timestamp.apply(resource)).isBefore(watermark))
+                    .toList();
+            Integer totalPages = response.getPagination().getTotalPages();
+            boolean more = changed.size() == response.getResources().size() && totalPages != null && page < totalPages;
+            return Flux.fromIterable(changed)
+                    .concatWith(more ? changedSince(watermark, pages, timestamp, page + 1) : Flux.empty());
+        });
+    }
+
+    private Instant initialWatermark() {
+        return entries.asMap().values().stream()
+                .map(Entry::fetchedAt)
+                .min(Instant::compareTo)
+                .orElseGet(Instant::now)
+                .minus(CLOCK_SKEW);
+    }
+
+    private static <T> Set<String> names(Entry entry, Class<T> type, Function<T, String> name) {
+        return entry.values().stream()
+                .map(type::cast)
+                .map(name)
+                .collect(Collectors.toSet());
+    }
+
+    private enum Kind {
+        ORGANIZATIONS, SPACES, APPLICATIONS, SERVICE_INSTANCES, SERVICE_OFFERINGS
+    }
+
+    private enum Feed {
+        ORGANIZATIONS, SPACES, APPLICATIONS, SERVICE_INSTANCES, SERVICE_OFFERINGS, AUDIT_EVENTS
+    }
+
+    private record Key(Kind kind, String org, String space) {
+
+        boolean isSpaceScoped() {
+            return kind == Kind.APPLICATIONS || kind == Kind.SERVICE_INSTANCES || kind == Kind.SERVICE_OFFERINGS;
+        }
+    }
+
+    private record Entry(List<?> values, Instant fetchedAt, String spaceId) {
+    }
+
+    /**
+     * The newest timestamp a feed has taken, and the GUIDs of the resources stamped with it. Another resource
+     * stamped in that same second is still a change; the ones listed are not, so the newest resources are not
+     * reloaded on every sync. A listed resource updated again within the same second is left to the full resync.
+     */
+    private record Watermark(Instant at, Set<String> ids) {
+
+        boolean seen(Instant timestamp, String id) {
+            return timestamp.equals(at) && ids.contains(id);
+        }
+
+        Watermark advance(Instant timestamp, String id) {
+            if (timestamp.isAfter(at)) {
+                return new Watermark(timestamp, Set.of(id));
+            }
+            if (timestamp.equals(at) && !ids.contains(id)) {
+                Set<String> advanced = new HashSet<>(ids);
+                advanced.add(id);
+                return new Watermark(at, advanced);
+            }
+            return this;
+        }
+    }
+
+    private static final class Changes {
+        private final Set<String> organizationIds = new HashSet<>();
+        private final Set<String> spaceListOrganizationIds = new HashSet<>();
+        private final Set<String> spaceIds = new HashSet<>();
+        private boolean serviceOfferings;
+    }
+}
@@ -0,0 +1,87 @@
+package org.tanzu.cfpulse.jobs;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * A long-running tool call executed by {@link JobService}. The work reports which step it is in, so that
+ * {@code jobStatus} can tell an upload from staging from waiting for instances.
+ */
+public final class Job {
+    private final String id;
+    private final String tool;
+    private final String foundation;
+    private final String org;
+    private final String space;
+    private final String applicationName;
+    private final String caller;
+    private final Instant submittedAt = Instant.now();
+    private volatile JobStatus.State state = JobStatus.State.QUEUED;
+    private volatile String step;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile Object result;
+
+    Job(String id, String tool, String foundation, String org, String space, String applicationName, String caller) {
+        this.id = id;
+        this.tool = tool;
+        this.foundation = foundation;
+        this.org = org;
+        this.space = space;
+        this.applicationName = applicationName;
+        this.caller = caller;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public void step(String step) {
+        this.step = step;
+    }
+
+    /**
+     * Marks the job as being in {@code step} once {@code work} is subscribed.
+     */
+    public <T> Mono<T> step(String step, Mono<T> work) {
+        return Mono.defer(() -> {
+            this.step = step;
+            return work;
+        });
+    }
+
+    String caller() {
+        return caller;
+    }
+
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        state = JobStatus.State.RUNNING;
+    }
+
+    void succeeded(Object result) {
+        this.result = result;
+        finish(JobStatus.State.SUCCEEDED);
+    }
+
+    void failed(Throwable e) {
+        error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        finish(JobStatus.State.FAILED);
+    }
+
+    private void finish(JobStatus.State state) {
+        finishedAt = Instant.now();
+        this.state = state;
+    }
+
+    JobStatus status() {
+        return new JobStatus(id, tool, foundation, org, space, applicationName, state, step,
+                submittedAt, startedAt, finishedAt, error, result, null);
+    }
+}
@@ -0,0 +1,131 @@
+package org.tanzu.cfpulse.jobs;
+
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tanzu.cfpulse.tokens.CallerToken;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs long mutating tool calls (push, start, restart, scale) in the background so the MCP request returns a job id
+ * at once. At most {@code cf.jobs.concurrency} jobs run at a time and {@code cf.jobs.queueCapacity} wait; beyond
+ * that a submission is refused. Finished jobs are kept for {@code cf.jobs.retention}, and at most
+ * {@code cf.jobs.history} of them. A job runs with the thread-locals of the call that submitted it, the caller's
+ * token among them, and only that caller sees it.
+ */
+@Component
+public class JobService {
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+
+    private final ThreadPoolExecutor threadPool;
+    private final ExecutorService executor;
+    private final int history;
+    private final Duration retention;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Deque<Job> finished = new ArrayDeque<>();
+    private final ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+
+    public JobService(MeterRegistry meterRegistry,
+                      @Value("${cf.jobs.concurrency:4}") int concurrency,
+                      @Value("${cf.jobs.queueCapacity:64}") int queueCapacity,
+                      @Value("${cf.jobs.history:200}") int history,
+                      @Value("${cf.jobs.retention:1h}") Duration retention) {
+        this.threadPool = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofVirtual().name("cf-job-", 0).factory());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, "cfJobs");
+        this.history = history;
+        this.retention = retention;
+    }
+
+    /**
+     * Queues the work and returns the status of the new job; {@code work} is only called once the job runs.
+     */
+    public JobStatus submit(String tool, String foundation, String org, String space, String applicationName,
+                            Function<Job, Mono<?>> work) {
+        Job job = new Job(UUID.randomUUID().toString(), tool, foundation, org, space, applicationName, CallerToken.id());
+        jobs.put(job.id(), job);
+        try {
+            executor.execute(snapshots.captureAll().wrap(() -> run(job, work)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            throw new IllegalStateException("Too many jobs are running or queued, try again later");
+        }
+        return job.status();
+    }
+
+    public Optional<JobStatus> status(String id) {
+        prune();
+        return Optional.ofNullable(jobs.get(id))
+                .filter(this::visible)
+                .map(Job::status);
+    }
+
+    /**
+     * The retained jobs, most recently submitted first.
+     */
+    public List<JobStatus> recent() {
+        prune();
+        return jobs.values().stream()
+                .filter(this::visible)
+                .map(Job::status)
+                .sorted(Comparator.comparing(JobStatus::submittedAt).reversed())
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdownNow();
+    }
+
+    private void run(Job job, Function<Job, Mono<?>> work) {
+        job.started();
+        try {
+            job.succeeded(Mono.defer(() -> work.apply(job)).block());
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            logger.debug("Job {} failed: {}", job.id(), cause.getMessage());
+            job.failed(cause);
+        }
+        synchronized (finished) {
+            finished.addLast(job);
+        }
+        prune();
+    }
+
+    private boolean visible(Job job) {
+        return Objects.equals(job.caller(), CallerToken.id());
+    }
+
+    private void prune() {
+        Instant expired = Instant.now().minus(retention);
+        synchronized (finished) {
+            while (!finished.isEmpty() && (finished.size() > history || finished.peekFirst().finishedAt().isBefore(expired))) {
+                jobs.remove(finished.removeFirst().id());
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.tanzu.cfpulse.jobs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobStatus(String id, String tool, String foundation, String org, String space, String applicationName,
+                        State state, String step, Instant submittedAt, Instant startedAt, Instant finishedAt,
+                        String error, Object result, Instances instances) {
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    JobStatus withInstances(Instances instances) {
+        return new JobStatus(id, tool, foundation, org, space, applicationName, state, step,
+                submittedAt, startedAt, finishedAt, error, result, instances);
+    }
+
+    /**
+     * Live instance counts of the application a running job acts on.
+     */
+    public record Instances(String requestedState, Integer running, Integer desired, Map<String, Long> states) {
+    }
+}
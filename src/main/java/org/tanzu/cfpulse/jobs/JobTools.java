@@ -0,0 +1,65 @@
+package org.tanzu.cfpulse.jobs;
+
+import org.cloudfoundry.operations.applications.ApplicationDetail;
+import org.cloudfoundry.operations.applications.GetApplicationRequest;
+import org.cloudfoundry.operations.applications.InstanceDetail;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+import org.tanzu.cfpulse.cf.FoundationRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Component
+public class JobTools {
+    public static final String RUNS_AS_JOB = "Runs as a background job and returns the job at once; poll jobStatus with its id for progress";
+
+    private static final String JOB_STATUS = "Return the state and current step of a job started by pushApplication, startApplication, " +
+            "restartApplication, scaleApplication or their batch variants. While the job runs, the live instance states of its application are included";
+    private static final String JOBS_LIST = "Return the recent jobs, most recently submitted first";
+    private static final String JOB_ID_PARAM = "The id of the job, as returned when it was submitted";
+    private final JobService jobService;
+    private final FoundationRegistry foundations;
+
+    public JobTools(JobService jobService, FoundationRegistry foundations) {
+        this.jobService = jobService;
+        this.foundations = foundations;
+    }
+
+    @Tool(description = JOB_STATUS)
+    public Mono<JobStatus> jobStatus(@ToolParam(description = JOB_ID_PARAM) String jobId) {
+        return Mono.justOrEmpty(jobService.status(jobId))
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Job %s does not exist or has expired".formatted(jobId))))
+                .flatMap(this::withInstances);
+    }
+
+    @Tool(description = JOBS_LIST)
+    public Mono<List<JobStatus>> jobsList() {
+        return Mono.fromSupplier(jobService::recent);
+    }
+
+    /**
+     * Adds the instance states of the job's application while the job runs. They are not available while the app
+     * is staging, in which case the status is returned as it is.
+     */
+    private Mono<JobStatus> withInstances(JobStatus status) {
+        if (status.state() != JobStatus.State.RUNNING || status.applicationName() == null) {
+            return Mono.just(status);
+        }
+        GetApplicationRequest request = GetApplicationRequest.builder().name(status.applicationName()).build();
+        return Mono.fromCallable(() -> foundations.get(status.foundation()).operationsCache().get(status.org(), status.space()))
+                .flatMap(operations -> operations.applications().get(request))
+                .map(application -> status.withInstances(new JobStatus.Instances(application.getRequestedState(),
+                        application.getRunningInstances(), application.getInstances(), states(application))))
+                .onErrorReturn(status);
+    }
+
+    private static Map<String, Long> states(ApplicationDetail application) {
+        return application.getInstanceDetails() == null ? Map.of() : application.getInstanceDetails().stream()
+                .collect(Collectors.groupingBy(InstanceDetail::getState, TreeMap::new, Collectors.counting()));
+    }
+}
@@ -0,0 +1,70 @@
+package org.tanzu.cfpulse.logs;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Comparator;
+
+/**
+ * The log buffer of one watched app and the Doppler subscription that fills it. The buffer is seeded from
+ * {@code recentLogs}, then the subscription keeps it current until {@link #dispose()} or the stream ends, whether or
+ * not anyone is following the live lines.
+ */
+final class AppLog {
+    private final LogBuffer buffer;
+    private final Sinks.Empty<Void> seeded = Sinks.empty();
+    private final Sinks.Many<LogLine> live = Sinks.many().multicast().directBestEffort();
+    private Disposable subscription;
+
+    AppLog(int bufferSize) {
+        this.buffer = new LogBuffer(bufferSize);
+    }
+
+    synchronized void subscribe(Flux<LogLine> recent, Flux<LogLine> stream, Runnable onTerminate) {
+        if (subscription == null) {
+            subscription = recent.sort(Comparator.comparing(LogLine::timestamp))
+                    .collectList()
+                    .doOnNext(buffer::addAll)
+                    .onErrorResume(e -> Mono.empty())
+                    .doFinally(signal -> seeded.tryEmitEmpty())
+                    .thenMany(stream)
+                    .doFinally(signal -> {
+                        live.tryEmitComplete();
+                        onTerminate.run();
+                    })
+                    .subscribe(this::add, e -> {
+                    });
+        }
+    }
+
+    synchronized void dispose() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Completes once the buffer holds the recent lines.
+     */
+    Mono<Void> seeded() {
+        return seeded.asMono();
+    }
+
+    LogBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Lines arriving from now on; a reader that cannot keep up misses lines rather than holding up the others.
+     */
+    Flux<LogLine> lines() {
+        return live.asFlux();
+    }
+
+    private void add(LogLine line) {
+        buffer.add(line);
+        live.tryEmitNext(line);
+    }
+}
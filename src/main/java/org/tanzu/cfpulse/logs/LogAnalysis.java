@@ -0,0 +1,180 @@
+package org.tanzu.cfpulse.logs;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single-pass aggregation of log lines into a {@link LogSummary}. Memory stays bounded however many lines go through:
+ * at most {@value #MAX_WINDOWS} windows and {@value #MAX_INSTANCES} instances are kept, and templates are counted
+ * with the space-saving algorithm over {@value #TEMPLATE_CAPACITY} slots, so a flood of distinct messages evicts
+ * the rarest template instead of growing the map. Router (RTR) lines go into the status code distribution rather
+ * than the templates, since their paths would crowd out everything else. Not thread-safe; feed it from one
+ * subscriber.
+ */
+final class LogAnalysis {
+    static final int MAX_WINDOWS = 120;
+    static final int MAX_INSTANCES = 200;
+    static final int TEMPLATE_CAPACITY = 512;
+    private static final int MAX_MESSAGE_LENGTH = 500;
+    private static final int MAX_TEMPLATE_LENGTH = 200;
+    private static final String OTHER_INSTANCES = "other";
+    private static final Pattern MASK = Pattern.compile(
+            "(?<uuid>\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b)" +
+            "|(?<ip>\\b\\d{1,3}(?:\\.\\d{1,3}){3}(?::\\d+)?\\b)" +
+            "|(?<hex>\\b(?:0x)?(?=[0-9a-fA-F]*\\d)[0-9a-fA-F]{8,}\\b)" +
+            "|(?<number>\\d+(?:\\.\\d+)?)");
+    private static final Pattern ERROR = Pattern.compile(
+            "\\b(?:ERROR|FATAL|SEVERE)\\b|Exception\\b|(?i:\"level\"\\s*:\\s*\"(?:error|fatal)\")");
+    private static final Pattern RTR_STATUS = Pattern.compile("\"[A-Z]+ [^\"]*\" (\\d{3}) ");
+
+    private final long windowSeconds;
+    private final int top;
+    private final TreeMap<Long, long[]> windows = new TreeMap<>();
+    private final Map<String, long[]> instances = new HashMap<>();
+    private final Map<String, Long> statusCodes = new TreeMap<>();
+    private final Map<String, TemplateCount> templates = new HashMap<>();
+    private long lines;
+    private long errors;
+    private long templateError;
+    private Instant from;
+    private Instant to;
+
+    LogAnalysis(Duration window, int top) {
+        this.windowSeconds = Math.max(1, window.toSeconds());
+        this.top = top;
+    }
+
+    void add(LogLine line) {
+        boolean router = line.sourceType() != null && line.sourceType().startsWith("RTR");
+        String message = line.message() == null ? "" : line.message();
+        boolean error = router ? routerError(message) : "ERR".equals(line.stream()) || ERROR.matcher(message).find();
+
+        lines++;
+        if (error) {
+            errors++;
+        }
+        if (line.timestamp() != null) {
+            from = from == null || line.timestamp().isBefore(from) ? line.timestamp() : from;
+            to = to == null || line.timestamp().isAfter(to) ? line.timestamp() : to;
+            count(window(line.timestamp()), error);
+        }
+        count(instance(line), error);
+        if (!router) {
+            template(message, error);
+        }
+    }
+
+    LogSummary summary() {
+        List<LogSummary.Window> windowList = windows.entrySet().stream()
+                .map(entry -> new LogSummary.Window(Instant.ofEpochSecond(entry.getKey()), entry.getValue()[0],
+                        entry.getValue()[1], (double) entry.getValue()[1] / entry.getValue()[0]))
+                .toList();
+        List<LogSummary.Template> topTemplates = templates.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, TemplateCount> entry) -> entry.getValue().count).reversed())
+                .limit(top)
+                .map(entry -> new LogSummary.Template(entry.getKey(), entry.getValue().count, entry.getValue().errors,
+                        entry.getValue().example))
+                .toList();
+        Map<String, LogSummary.Counts> instanceCounts = new TreeMap<>();
+        instances.forEach((instance, counts) -> instanceCounts.put(instance, new LogSummary.Counts(counts[0], counts[1])));
+        return new LogSummary(lines, errors, from, to, windowList, topTemplates,
+                templateError == 0 ? null : templateError, instanceCounts, new LinkedHashMap<>(statusCodes));
+    }
+
+    private boolean routerError(String message) {
+        Matcher matcher = RTR_STATUS.matcher(message);
+        if (!matcher.find()) {
+            return false;
+        }
+        String status = matcher.group(1);
+        statusCodes.merge(status, 1L, Long::sum);
+        return status.charAt(0) == '5';
+    }
+
+    private long[] window(Instant timestamp) {
+        long start = Math.floorDiv(timestamp.getEpochSecond(), windowSeconds) * windowSeconds;
+        long[] counts = windows.get(start);
+        if (counts == null) {
+            if (windows.size() == MAX_WINDOWS) {
+                if (start < windows.firstKey()) {
+                    return null;
+                }
+                windows.pollFirstEntry();
+            }
+            counts = new long[2];
+            windows.put(start, counts);
+        }
+        return counts;
+    }
+
+    private long[] instance(LogLine line) {
+        String key = line.instance() == null || line.instance().isEmpty() ? line.sourceType()
+                : line.sourceType() + "/" + line.instance();
+        long[] counts = instances.get(key);
+        if (counts == null) {
+            key = instances.size() < MAX_INSTANCES - 1 ? key : OTHER_INSTANCES;
+            counts = instances.computeIfAbsent(key, k -> new long[2]);
+        }
+        return counts;
+    }
+
+    private static void count(long[] counts, boolean error) {
+        if (counts != null) {
+            counts[0]++;
+            if (error) {
+                counts[1]++;
+            }
+        }
+    }
+
+    private void template(String message, boolean error) {
+        String truncated = message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+        String template = mask(truncated.strip());
+        TemplateCount count = templates.get(template);
+        if (count == null) {
+            if (templates.size() < TEMPLATE_CAPACITY) {
+                count = new TemplateCount(truncated, 0);
+            } else {
+                // Space-saving: the new template takes over the slot of the rarest one and inherits its count
+                Map.Entry<String, TemplateCount> rarest = templates.entrySet().stream()
+                        .min(Comparator.comparingLong(entry -> entry.getValue().count))
+                        .orElseThrow();
+                templates.remove(rarest.getKey());
+                templateError = Math.max(templateError, rarest.getValue().count);
+                count = new TemplateCount(truncated, rarest.getValue().count);
+            }
+            templates.put(template, count);
+        }
+        count.count++;
+        if (error) {
+            count.errors++;
+        }
+    }
+
+    static String mask(String message) {
+        String masked = MASK.matcher(message).replaceAll(result -> result.group("uuid") != null ? "<uuid>"
+                : result.group("ip") != null ? "<ip>"
+                : result.group("hex") != null ? "<hex>"
+                : "<n>");
+        return masked.length() > MAX_TEMPLATE_LENGTH ? masked.substring(0, MAX_TEMPLATE_LENGTH) : masked;
+    }
+
+    private static final class TemplateCount {
+        private final String example;
+        private long count;
+        private long errors;
+
+        TemplateCount(String example, long count) {
+            this.example = example;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.tanzu.cfpulse.logs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the most recent log lines of one application.
+ */
+final class LogBuffer {
+    private final LogLine[] lines;
+    private int next;
+    private int size;
+
+    LogBuffer(int capacity) {
+        this.lines = new LogLine[capacity];
+    }
+
+    synchronized void add(LogLine line) {
+        lines[next] = line;
+        next = (next + 1) % lines.length;
+        size = Math.min(size + 1, lines.length);
+    }
+
+    synchronized void addAll(Collection<LogLine> recent) {
+        recent.forEach(this::add);
+    }
+
+    synchronized List<LogLine> snapshot() {
+        List<LogLine> snapshot = new ArrayList<>(size);
+        int start = (next - size + lines.length) % lines.length;
+        for (int i = 0; i < size; i++) {
+            snapshot.add(lines[(start + i) % lines.length]);
+        }
+        return snapshot;
+    }
+}
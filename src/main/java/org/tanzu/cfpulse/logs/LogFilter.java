@@ -0,0 +1,41 @@
+package org.tanzu.cfpulse.logs;
+
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Server-side filter for log lines. The source type matches as a case-insensitive prefix, so {@code APP} selects
+ * {@code APP/PROC/WEB} as well as {@code APP/TASK/...}; the pattern is a regular expression searched in the message.
+ */
+public record LogFilter(String sourceType, String instance, Pattern pattern) implements Predicate<LogLine> {
+
+    public static final LogFilter ALL = new LogFilter(null, null, null);
+
+    public static LogFilter of(String sourceType, Integer instance, String pattern) {
+        return new LogFilter(sourceType == null || sourceType.isBlank() ? null : sourceType,
+                instance == null ? null : instance.toString(),
+                pattern == null || pattern.isEmpty() ? null : compile(pattern));
+    }
+
+    private static Pattern compile(String pattern) {
+        try {
+            return Pattern.compile(pattern);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Pattern %s is not a valid regular expression: %s at index %d"
+                    .formatted(pattern, e.getDescription(), e.getIndex()));
+        }
+    }
+
+    @Override
+    public boolean test(LogLine line) {
+        if (sourceType != null && (line.sourceType() == null
+                || !line.sourceType().regionMatches(true, 0, sourceType, 0, sourceType.length()))) {
+            return false;
+        }
+        if (instance != null && !instance.equals(line.instance())) {
+            return false;
+        }
+        return pattern == null || pattern.matcher(line.message()).find();
+    }
+}
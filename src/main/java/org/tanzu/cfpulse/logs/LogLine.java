@@ -0,0 +1,17 @@
+package org.tanzu.cfpulse.logs;
+
+import org.cloudfoundry.doppler.LogMessage;
+
+import java.time.Instant;
+
+public record LogLine(Instant timestamp, String sourceType, String instance, String stream, String message) {
+
+    static LogLine from(LogMessage logMessage) {
+        long timestamp = logMessage.getTimestamp();
+        return new LogLine(Instant.ofEpochSecond(0, timestamp),
+                logMessage.getSourceType(),
+                logMessage.getSourceInstance(),
+                logMessage.getMessageType().name(),
+                logMessage.getMessage());
+    }
+}
@@ -0,0 +1,109 @@
+package org.tanzu.cfpulse.logs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.cloudfoundry.doppler.Envelope;
+import org.cloudfoundry.doppler.EventType;
+import org.cloudfoundry.doppler.RecentLogsRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tanzu.cfpulse.cf.Foundation;
+import org.tanzu.cfpulse.cf.FoundationRegistry;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Tails application logs from the shared Doppler stream. Every watched app keeps a bounded ring of its most recent
+ * lines, seeded once from {@code recentLogs} and fed by the stream for as long as the app stays watched, so a new
+ * reader gets recent history without another round trip; readers that fall behind lose their oldest undelivered
+ * lines rather than holding up the stream. An app is watched until it has not been read for ten times
+ * {@code cf.doppler.linger}, at most {@code cf.logs.maximumApps} of them.
+ */
+@Component
+public class LogService {
+    private final FoundationRegistry foundations;
+    private final int bufferSize;
+    private final int readerBufferSize;
+    private final Cache<AppKey, AppLog> appLogs;
+
+    public LogService(FoundationRegistry foundations,
+                      MeterRegistry meterRegistry,
+                      @Value("${cf.logs.bufferSize:1000}") int bufferSize,
+                      @Value("${cf.logs.readerBufferSize:256}") int readerBufferSize,
+                      @Value("${cf.logs.maximumApps:100}") long maximumApps,
+                      @Value("${cf.doppler.linger:60s}") Duration linger) {
+        this.foundations = foundations;
+        this.bufferSize = bufferSize;
+        this.readerBufferSize = readerBufferSize;
+        this.appLogs = Caffeine.newBuilder()
+                .maximumSize(maximumApps)
+                .expireAfterAccess(linger.multipliedBy(10))
+                .scheduler(Scheduler.systemScheduler())
+                .<AppKey, AppLog>removalListener((key, appLog, cause) -> {
+                    if (appLog != null) {
+                        appLog.dispose();
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, appLogs, "cfLogs");
+    }
+
+    /**
+     * Buffered lines matching the filter followed by live ones, until the subscriber cancels.
+     */
+    public Flux<LogLine> tail(String foundation, String org, String space, String applicationName, LogFilter filter) {
+        return tail(foundation, org, space, applicationName, filter, null);
+    }
+
+    /**
+     * Buffered lines matching the filter followed by the live ones arriving within {@code follow}.
+     */
+    public Flux<LogLine> tail(String foundation, String org, String space, String applicationName, LogFilter filter,
+                              Duration follow) {
+        return Mono.fromCallable(() -> foundations.get(foundation))
+                .flatMapMany(target -> target.inventory().applicationId(org, space, applicationName)
+                        .flatMapMany(applicationId -> tail(target, applicationId, filter, follow)));
+    }
+
+    private Flux<LogLine> tail(Foundation foundation, String applicationId, LogFilter filter, Duration follow) {
+        AppLog appLog = watch(foundation, new AppKey(foundation.name(), foundation.caller(), applicationId));
+        Flux<LogLine> live = follow == null ? appLog.lines()
+                : follow.isZero() ? Flux.empty()
+                : appLog.lines().take(follow);
+        return appLog.seeded()
+                .thenMany(Flux.defer(() -> Flux.fromIterable(appLog.buffer().snapshot())))
+                .concatWith(live)
+                .filter(filter)
+                .onBackpressureBuffer(readerBufferSize, line -> {
+                }, BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    private AppLog watch(Foundation foundation, AppKey key) {
+        AppLog appLog = appLogs.get(key, k -> new AppLog(bufferSize));
+        appLog.subscribe(logLines(Flux.defer(() -> foundation.dopplerClient().recentLogs(RecentLogsRequest.builder()
+                        .applicationId(key.applicationId())
+                        .build()))),
+                logLines(Flux.defer(() -> foundation.dopplerStreams().stream(key.applicationId()))),
+                () -> appLogs.asMap().remove(key, appLog));
+        return appLog;
+    }
+
+    private static Flux<LogLine> logLines(Flux<Envelope> envelopes) {
+        return envelopes.filter(LogService::isLogMessage)
+                .map(envelope -> LogLine.from(envelope.getLogMessage()));
+    }
+
+    private static boolean isLogMessage(Envelope envelope) {
+        return envelope.getEventType() == EventType.LOG_MESSAGE && envelope.getLogMessage() != null;
+    }
+
+    private record AppKey(String foundation, String caller, String applicationId) {
+    }
+}
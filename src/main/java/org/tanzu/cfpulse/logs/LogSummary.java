@@ -0,0 +1,26 @@
+package org.tanzu.cfpulse.logs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What {@link LogAnalysis} found in an app's log lines. Template counts are exact unless more distinct templates
+ * turned up than are tracked, in which case they may be overestimated by at most {@code templateError}.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record LogSummary(long lines, long errors, Instant from, Instant to, List<Window> windows,
+                         List<Template> templates, Long templateError, Map<String, Counts> instances,
+                         Map<String, Long> statusCodes) {
+
+    public record Window(Instant start, long lines, long errors, double errorRate) {
+    }
+
+    public record Template(String template, long count, long errors, String example) {
+    }
+
+    public record Counts(long lines, long errors) {
+    }
+}
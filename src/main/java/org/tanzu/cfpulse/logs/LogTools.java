@@ -0,0 +1,76 @@
+package org.tanzu.cfpulse.logs;
+
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.tanzu.cfpulse.cf.FoundationRegistry.FOUNDATION_PARAM;
+
+@Component
+public class LogTools {
+
+    private static final String TAIL_LOGS = "Return the most recent log lines of a Cloud Foundry application, " +
+            "optionally waiting a few seconds for new lines to arrive";
+    private static final String ANALYZE_LOGS = "Summarize the recent log lines of a Cloud Foundry application instead of returning them: " +
+            "error rate per time window, the most frequent messages with numbers and IDs masked, line and error counts per instance, " +
+            "and the HTTP status codes of router (RTR) requests. Optionally keeps collecting new lines for a few seconds";
+    private static final String NAME_PARAM = "Name of the Cloud Foundry application";
+    private static final String ORG_PARAM = "Name of the Cloud Foundry organization";
+    private static final String SPACE_PARAM = "Name of the Cloud Foundry space";
+    private static final String SOURCE_TYPE_PARAM = "Only return lines whose source type starts with this value, e.g. APP, RTR, STG or APP/PROC/WEB";
+    private static final String INSTANCE_PARAM = "Only return lines from this application instance index";
+    private static final String PATTERN_PARAM = "Only return lines whose message matches this regular expression";
+    private static final String SECONDS_PARAM = "Number of seconds to wait for new log lines. Defaults to 0";
+    private static final String LIMIT_PARAM = "Maximum number of log lines to return, at most 1000. Defaults to 100";
+    private static final String WINDOW_PARAM = "Length in seconds of the time windows the error rate is reported for. Defaults to 60";
+    private static final String TOP_PARAM = "Number of most frequent message templates to return. Defaults to 10";
+    private static final int MAX_SECONDS = 30;
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_TOP = 50;
+    private final LogService logService;
+
+    public LogTools(LogService logService) {
+        this.logService = logService;
+    }
+
+    @Tool(description = TAIL_LOGS)
+    public Mono<List<LogLine>> tailLogs(@ToolParam(description = NAME_PARAM) String applicationName,
+                                        @ToolParam(description = ORG_PARAM) String org,
+                                        @ToolParam(description = SPACE_PARAM) String space,
+                                        @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                        @ToolParam(description = SOURCE_TYPE_PARAM, required = false) String sourceType,
+                                        @ToolParam(description = INSTANCE_PARAM, required = false) Integer instance,
+                                        @ToolParam(description = PATTERN_PARAM, required = false) String pattern,
+                                        @ToolParam(description = SECONDS_PARAM, required = false) Integer seconds,
+                                        @ToolParam(description = LIMIT_PARAM, required = false) Integer limit) {
+        Duration wait = Duration.ofSeconds(Math.clamp(seconds == null ? 0 : seconds, 0, MAX_SECONDS));
+        return Mono.fromCallable(() -> LogFilter.of(sourceType, instance, pattern))
+                .flatMapMany(filter -> logService.tail(foundation, org, space, applicationName, filter, wait))
+                .takeLast(Math.clamp(limit == null ? 100 : limit, 1, MAX_LIMIT))
+                .collectList();
+    }
+
+    @Tool(description = ANALYZE_LOGS)
+    public Mono<LogSummary> analyzeLogs(@ToolParam(description = NAME_PARAM) String applicationName,
+                                        @ToolParam(description = ORG_PARAM) String org,
+                                        @ToolParam(description = SPACE_PARAM) String space,
+                                        @ToolParam(description = FOUNDATION_PARAM, required = false) String foundation,
+                                        @ToolParam(description = SOURCE_TYPE_PARAM, required = false) String sourceType,
+                                        @ToolParam(description = INSTANCE_PARAM, required = false) Integer instance,
+                                        @ToolParam(description = PATTERN_PARAM, required = false) String pattern,
+                                        @ToolParam(description = SECONDS_PARAM, required = false) Integer seconds,
+                                        @ToolParam(description = WINDOW_PARAM, required = false) Integer windowSeconds,
+                                        @ToolParam(description = TOP_PARAM, required = false) Integer top) {
+        Duration wait = Duration.ofSeconds(Math.clamp(seconds == null ? 0 : seconds, 0, MAX_SECONDS));
+        Duration window = Duration.ofSeconds(windowSeconds == null || windowSeconds < 1 ? 60 : windowSeconds);
+        int templates = Math.clamp(top == null ? 10 : top, 1, MAX_TOP);
+        return Mono.fromCallable(() -> LogFilter.of(sourceType, instance, pattern))
+                .flatMapMany(filter -> logService.tail(foundation, org, space, applicationName, filter, wait))
+                .collect(() -> new LogAnalysis(window, templates), LogAnalysis::add)
+                .map(LogAnalysis::summary);
+    }
+}
@@ -0,0 +1,8 @@
+package org.tanzu.cfpulse.mcp;
+
+/**
+ * Tool result that has already been rendered by {@link ResultProjector}; it is passed to the model as is instead
+ * of being serialized again.
+ */
+public record ProjectedResult(String text) {
+}
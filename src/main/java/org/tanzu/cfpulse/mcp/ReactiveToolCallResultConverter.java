@@ -0,0 +1,52 @@
+package org.tanzu.cfpulse.mcp;
+
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Converts the result of a tool method returning {@link Mono} or {@link Flux}. {@link ReactiveToolCallbacks} uses
+ * {@link #toPublisher(Object)} and {@link #convertValue(Object, Type)} so the value is only serialized once it has
+ * been emitted; {@link #convert(Object, Type)} waits for the publisher for callers that need a plain converter.
+ */
+public class ReactiveToolCallResultConverter implements ToolCallResultConverter {
+    private final ToolCallResultConverter delegate = new DefaultToolCallResultConverter();
+
+    @Override
+    public String convert(@Nullable Object result, @Nullable Type returnType) {
+        return convertValue(toPublisher(result).block(), returnType);
+    }
+
+    public Mono<Object> toPublisher(@Nullable Object result) {
+        if (result instanceof Mono<?> mono) {
+            return mono.cast(Object.class);
+        }
+        if (result instanceof Flux<?> flux) {
+            return flux.collectList().cast(Object.class);
+        }
+        return Mono.justOrEmpty(result);
+    }
+
+    public String convertValue(@Nullable Object value, @Nullable Type returnType) {
+        if (value instanceof ProjectedResult projected) {
+            return projected.text();
+        }
+        return delegate.convert(value, valueType(returnType));
+    }
+
+    @Nullable
+    private static Type valueType(@Nullable Type returnType) {
+        if (returnType instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && (Mono.class.isAssignableFrom(raw) || Flux.class.isAssignableFrom(raw))) {
+            Type valueType = parameterized.getActualTypeArguments()[0];
+            return valueType == Void.class ? Void.TYPE : valueType;
+        }
+        return returnType;
+    }
+}
@@ -0,0 +1,135 @@
+package org.tanzu.cfpulse.mcp;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.ai.util.json.JsonParser;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+import org.tanzu.cfpulse.metrics.ToolCallObservations;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Exposes {@link Tool} methods that return {@link Mono} or {@link reactor.core.publisher.Flux} to the MCP server,
+ * either as blocking {@link ToolCallback}s for the SYNC server or as non-blocking
+ * {@link McpServerFeatures.AsyncToolSpecification}s for the ASYNC server. Both share one pipeline, so every call is
+ * observed by {@link ToolCallObservations} the same way.
+ */
+public final class ReactiveToolCallbacks {
+    private static final ReactiveToolCallResultConverter RESULT_CONVERTER = new ReactiveToolCallResultConverter();
+
+    private ReactiveToolCallbacks() {
+    }
+
+    public static ToolCallbackProvider blocking(ToolCallObservations observations, Object... toolObjects) {
+        return ToolCallbackProvider.from(toolMethods(toolObjects)
+                .map(toolMethod -> (ToolCallback) new BlockingToolCallback(toolMethod, observations))
+                .toList());
+    }
+
+    public static List<McpServerFeatures.AsyncToolSpecification> nonBlocking(ToolCallObservations observations,
+                                                                            Object... toolObjects) {
+        return toolMethods(toolObjects)
+                .map(toolMethod -> asyncToolSpecification(toolMethod, observations))
+                .toList();
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification asyncToolSpecification(ToolMethod toolMethod,
+                                                                                   ToolCallObservations observations) {
+        ToolDefinition definition = ToolDefinition.from(toolMethod.method());
+        McpSchema.Tool tool = new McpSchema.Tool(definition.name(), definition.description(), definition.inputSchema());
+        return new McpServerFeatures.AsyncToolSpecification(tool, (exchange, arguments) ->
+                call(toolMethod, definition, arguments, observations)
+                        .map(result -> new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(result)), false))
+                        .onErrorResume(e -> Mono.just(
+                                new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(e.getMessage())), true))));
+    }
+
+    private static Mono<String> call(ToolMethod toolMethod, ToolDefinition definition, Map<String, Object> arguments,
+                                     ToolCallObservations observations) {
+        Type returnType = toolMethod.method().getGenericReturnType();
+        return observations.observe(definition.name(), arguments,
+                        Mono.defer(() -> RESULT_CONVERTER.toPublisher(toolMethod.invoke(arguments))))
+                .map(value -> RESULT_CONVERTER.convertValue(value, returnType))
+                .defaultIfEmpty(RESULT_CONVERTER.convertValue(null, returnType));
+    }
+
+    private static Stream<ToolMethod> toolMethods(Object... toolObjects) {
+        return Stream.of(toolObjects)
+                .flatMap(toolObject -> Stream.of(ReflectionUtils.getDeclaredMethods(AopUtils.getTargetClass(toolObject)))
+                        .filter(method -> method.isAnnotationPresent(Tool.class))
+                        .map(method -> new ToolMethod(toolObject, method)));
+    }
+
+    private record BlockingToolCallback(ToolMethod toolMethod, ToolDefinition toolDefinition,
+                                        ToolMetadata toolMetadata, ToolCallObservations observations)
+            implements ToolCallback {
+
+        BlockingToolCallback(ToolMethod toolMethod, ToolCallObservations observations) {
+            this(toolMethod, ToolDefinition.from(toolMethod.method()), ToolMetadata.from(toolMethod.method()),
+                    observations);
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return toolDefinition;
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return toolMetadata;
+        }
+
+        @Override
+        public String call(String toolInput) {
+            Map<String, Object> arguments = JsonParser.fromJson(toolInput, new TypeReference<Map<String, Object>>() {
+            });
+            return ReactiveToolCallbacks.call(toolMethod, toolDefinition, arguments, observations).block();
+        }
+
+        @Override
+        public String call(String toolInput, @Nullable ToolContext toolContext) {
+            return call(toolInput);
+        }
+    }
+
+    private record ToolMethod(Object target, Method method) {
+
+        Object invoke(Map<String, Object> arguments) {
+            Object[] methodArguments = Stream.of(method.getParameters())
+                    .map(parameter -> argument(parameter, arguments))
+                    .toArray();
+            try {
+                return method.invoke(target, methodArguments);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Could not access method: " + e.getMessage(), e);
+            } catch (InvocationTargetException e) {
+                throw e.getCause() instanceof RuntimeException runtimeException
+                        ? runtimeException : new IllegalStateException(e.getCause());
+            }
+        }
+
+        private static Object argument(Parameter parameter, Map<String, Object> arguments) {
+            if (ToolContext.class.isAssignableFrom(parameter.getType())) {
+                return null;
+            }
+            Object value = arguments.get(parameter.getName());
+            return value == null ? null : JsonParser.toTypedObject(value, parameter.getType());
+        }
+    }
+}
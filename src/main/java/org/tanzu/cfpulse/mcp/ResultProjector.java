@@ -0,0 +1,167 @@
+package org.tanzu.cfpulse.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.ai.util.json.JsonParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Shrinks tool results before they reach the model. Only the selected fields are kept, dotted paths reach into
+ * nested objects and lists ({@code servicePlans.name}), and lists default to a compact table with one header line.
+ * Output longer than {@code cf.projection.maxChars} is cut at a row boundary and ends with a truncation marker.
+ */
+@Component
+public class ResultProjector {
+    public static final String FIELDS_PARAM = "Comma separated fields to return, dotted paths reach into nested values. Use * for all fields";
+    public static final String FORMAT_PARAM = "Output format: table (compact, one line per item) or json";
+    private static final String ALL_FIELDS = "*";
+    private static final String TABLE = "table";
+    private static final String JSON = "json";
+
+    private final ObjectMapper objectMapper = JsonParser.getObjectMapper();
+    private final int maxChars;
+
+    public ResultProjector(@Value("${cf.projection.maxChars:16000}") int maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    public ProjectedResult project(@Nullable Object value, List<String> defaultFields,
+                                   @Nullable String fields, @Nullable String format) {
+        List<String> selected = fields == null || fields.isBlank() ? defaultFields
+                : Stream.of(fields.split(",")).map(String::trim).filter(field -> !field.isEmpty()).toList();
+        if (value instanceof Collection<?> items) {
+            List<JsonNode> rows = new ArrayList<>(items.size());
+            objectMapper.<JsonNode>valueToTree(items).forEach(item -> rows.add(select(item, selected)));
+            return new ProjectedResult(JSON.equalsIgnoreCase(format) ? jsonRows(rows) : table(rows, selected));
+        }
+        JsonNode node = select(objectMapper.valueToTree(value), selected);
+        return new ProjectedResult(TABLE.equalsIgnoreCase(format) ? table(List.of(node), selected) : json(node));
+    }
+
+    private static JsonNode select(JsonNode node, List<String> fields) {
+        if (fields.contains(ALL_FIELDS) || !node.isObject()) {
+            return node;
+        }
+        ObjectNode selected = JsonNodeFactory.instance.objectNode();
+        for (String field : fields) {
+            JsonNode value = path(node, field.split("\\."), 0);
+            if (value != null && !value.isNull()) {
+                selected.set(field, value);
+            }
+        }
+        return selected;
+    }
+
+    @Nullable
+    private static JsonNode path(@Nullable JsonNode node, String[] path, int index) {
+        if (node == null || index == path.length) {
+            return node;
+        }
+        if (node.isArray()) {
+            ArrayNode values = JsonNodeFactory.instance.arrayNode();
+            node.forEach(element -> {
+                JsonNode value = path(element, path, index);
+                if (value != null && !value.isNull()) {
+                    values.add(value);
+                }
+            });
+            return values;
+        }
+        return path(node.get(path[index]), path, index + 1);
+    }
+
+    private String table(List<JsonNode> rows, List<String> fields) {
+        List<String> columns = fields.contains(ALL_FIELDS) ? allColumns(rows) : fields;
+        StringBuilder table = new StringBuilder(String.join("|", columns)).append('\n');
+        int shown = 0;
+        for (JsonNode row : rows) {
+            String line = columns.stream()
+                    .map(column -> cell(row.get(column)))
+                    .collect(Collectors.joining("|"));
+            if (table.length() + line.length() + 1 > maxChars) {
+                break;
+            }
+            table.append(line).append('\n');
+            shown++;
+        }
+        if (shown < rows.size()) {
+            table.append(truncated(shown, rows.size()));
+        }
+        return table.toString();
+    }
+
+    private String jsonRows(List<JsonNode> rows) {
+        StringBuilder array = new StringBuilder("[");
+        int shown = 0;
+        for (JsonNode row : rows) {
+            String json = write(row);
+            if (array.length() + json.length() + 2 > maxChars) {
+                break;
+            }
+            array.append(shown == 0 ? "" : ",").append(json);
+            shown++;
+        }
+        if (shown < rows.size()) {
+            array.append(shown == 0 ? "" : ",").append(write(JsonNodeFactory.instance.textNode(truncated(shown, rows.size()))));
+        }
+        return array.append(']').toString();
+    }
+
+    private String json(JsonNode node) {
+        String json = write(node);
+        return json.length() <= maxChars ? json
+                : json.substring(0, maxChars) + "\n[truncated: %d of %d characters shown, select fewer fields]"
+                .formatted(maxChars, json.length());
+    }
+
+    private String write(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String truncated(int shown, int total) {
+        return "[truncated: %d of %d items shown, select fewer fields or narrow the request]".formatted(shown, total);
+    }
+
+    private static List<String> allColumns(List<JsonNode> rows) {
+        List<String> columns = new ArrayList<>();
+        rows.forEach(row -> row.fieldNames().forEachRemaining(name -> {
+            if (!columns.contains(name)) {
+                columns.add(name);
+            }
+        }));
+        return columns;
+    }
+
+    private static String cell(@Nullable JsonNode value) {
+        if (value == null || value.isNull()) {
+            return "";
+        }
+        if (value.isValueNode()) {
+            return value.asText().replace("|", "\\|").replace("\n", " ");
+        }
+        if (value.isArray() && StreamSupport.stream(value.spliterator(), false).allMatch(JsonNode::isValueNode)) {
+            return StreamSupport.stream(value.spliterator(), false)
+                    .map(JsonNode::asText)
+                    .collect(Collectors.joining(","))
+                    .replace("|", "\\|");
+        }
+        return value.toString().replace("|", "\\|");
+    }
+}
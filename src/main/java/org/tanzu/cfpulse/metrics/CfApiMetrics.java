@@ -0,0 +1,118 @@
+package org.tanzu.cfpulse.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.AttributeKey;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Instruments the {@link HttpClient} shared by the Cloud Foundry clients. Every request is timed as
+ * {@code cf.api.requests} and its response size recorded as {@code cf.api.response.size}, both tagged by method and
+ * URI with GUIDs replaced by {@code {id}}; UAA token requests are also timed as {@code cf.token.refresh}. Requests made
+ * inside a tool call are added to that call's {@link CfApiUsage}.
+ */
+@Component
+public class CfApiMetrics {
+    private static final AttributeKey<Exchange> EXCHANGE = AttributeKey.valueOf("cfpulse.exchange");
+    private static final String BYTES_HANDLER = "cfpulse.inboundBytes";
+    private static final Pattern GUID = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final String TOKEN_PATH = "/oauth/token";
+
+    private final MeterRegistry meterRegistry;
+
+    public CfApiMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public HttpClient instrument(HttpClient httpClient) {
+        return httpClient
+                .doOnChannelInit((observer, channel, address) -> {
+                    if (channel.pipeline().get(BYTES_HANDLER) == null) {
+                        channel.pipeline().addFirst(BYTES_HANDLER, InboundBytes.INSTANCE);
+                    }
+                })
+                .doOnRequest((request, connection) -> connection.channel().attr(EXCHANGE).set(Exchange.of(request)))
+                .doAfterResponseSuccess((response, connection) -> complete(connection.channel(), response.status().code()))
+                .doOnResponseError((response, error) -> Counter.builder("cf.api.errors")
+                        .tag("method", response.method().name())
+                        .tag("uri", normalize(response.fullPath()))
+                        .register(meterRegistry)
+                        .increment());
+    }
+
+    private void complete(Channel channel, int status) {
+        Exchange exchange = channel.attr(EXCHANGE).getAndSet(null);
+        if (exchange == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - exchange.started();
+        long bytes = exchange.bytes().get();
+        Timer.builder("cf.api.requests")
+                .tag("method", exchange.method())
+                .tag("uri", exchange.uri())
+                .tag("status", Integer.toString(status))
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("cf.api.response.size")
+                .baseUnit("bytes")
+                .tag("method", exchange.method())
+                .tag("uri", exchange.uri())
+                .register(meterRegistry)
+                .record(bytes);
+        if (exchange.uri().endsWith(TOKEN_PATH)) {
+            Timer.builder("cf.token.refresh")
+                    .tag("status", Integer.toString(status))
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        if (exchange.usage() != null) {
+            exchange.usage().record(exchange.page(), bytes);
+        }
+    }
+
+    static String normalize(String path) {
+        return GUID.matcher(path.startsWith("/") ? path : "/" + path).replaceAll("{id}");
+    }
+
+    private record Exchange(String method, String uri, boolean page, CfApiUsage usage, long started, AtomicLong bytes) {
+
+        static Exchange of(HttpClientRequest request) {
+            return new Exchange(request.method().name(),
+                    normalize(request.fullPath()),
+                    request.uri().contains("page="),
+                    request.currentContextView().getOrDefault(CfApiUsage.class, null),
+                    System.nanoTime(),
+                    new AtomicLong());
+        }
+    }
+
+    /**
+     * Counts the bytes read from the wire for the exchange currently running on the channel.
+     */
+    @ChannelHandler.Sharable
+    private static final class InboundBytes extends ChannelInboundHandlerAdapter {
+        static final InboundBytes INSTANCE = new InboundBytes();
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            Exchange exchange = ctx.channel().attr(EXCHANGE).get();
+            if (exchange != null && msg instanceof ByteBuf buffer) {
+                exchange.bytes().addAndGet(buffer.readableBytes());
+            }
+            ctx.fireChannelRead(msg);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.tanzu.cfpulse.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cloud Foundry API traffic caused by one tool call. {@link ToolCallObservations} puts an instance into the Reactor
+ * context of the call and {@link CfApiMetrics} adds every request made on its behalf.
+ */
+public final class CfApiUsage {
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger pages = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+
+    void record(boolean page, long responseBytes) {
+        requests.incrementAndGet();
+        if (page) {
+            pages.incrementAndGet();
+        }
+        bytes.addAndGet(responseBytes);
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public int pages() {
+        return pages.get();
+    }
+
+    public long bytes() {
+        return bytes.get();
+    }
+}
@@ -0,0 +1,42 @@
+package org.tanzu.cfpulse.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Adds the Cloud Foundry foundation and org a request targets to {@code http.server.requests}, taken from the
+ * {@code foundation} and {@code org} path variables or request parameters of the
+ * {@link org.tanzu.cfpulse.cf.CfController} endpoints and resolved by {@link TargetTags}.
+ */
+@Component
+public class OrgServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+    private final TargetTags targetTags;
+
+    public OrgServerRequestObservationConvention(TargetTags targetTags) {
+        this.targetTags = targetTags;
+    }
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        String foundation = parameter(context.getCarrier(), "foundation");
+        return super.getLowCardinalityKeyValues(context).and(
+                KeyValue.of("foundation", targetTags.foundation(foundation)),
+                KeyValue.of("org", targetTags.org(foundation, parameter(context.getCarrier(), "org"))));
+    }
+
+    private static String parameter(HttpServletRequest request, String name) {
+        String value = request.getParameter(name);
+        if (value == null && request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get(name) instanceof String variable) {
+            value = variable;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,36 @@
+package org.tanzu.cfpulse.metrics;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.tanzu.cfpulse.cf.FoundationRegistry;
+
+/**
+ * Tag values for the foundation and org a request names. Both come from the caller, so a name is only used as a tag
+ * once it is known to exist: a configured foundation, an org in one of the inventories. Anything else is tagged
+ * {@code unknown} rather than opening a new time series per name.
+ */
+@Component
+public class TargetTags {
+    static final String NONE = "none";
+    static final String UNKNOWN = "unknown";
+
+    private final FoundationRegistry foundations;
+
+    public TargetTags(FoundationRegistry foundations) {
+        this.foundations = foundations;
+    }
+
+    public String foundation(@Nullable String name) {
+        if (name == null || name.isBlank()) {
+            return NONE;
+        }
+        return foundations.isConfigured(name) ? name : UNKNOWN;
+    }
+
+    public String org(@Nullable String foundation, @Nullable String org) {
+        if (org == null || org.isBlank()) {
+            return NONE;
+        }
+        return foundations.knowsOrganization(foundation, org) ? org : UNKNOWN;
+    }
+}
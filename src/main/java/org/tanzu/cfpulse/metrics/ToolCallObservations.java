@@ -0,0 +1,79 @@
+package org.tanzu.cfpulse.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+
+/**
+ * Observes MCP tool calls as {@code mcp.tool.call}, tagged by tool, foundation, org and outcome, which yields the
+ * timer (and a span when a tracer is configured). Foundation and org are resolved by {@link TargetTags} when the call
+ * ends, so an org the call itself looked up is tagged by name. The Cloud Foundry requests, pages and response bytes each call
+ * caused are recorded as the {@code mcp.tool.cf.requests}, {@code mcp.tool.cf.pages} and {@code mcp.tool.cf.bytes}
+ * distributions.
+ */
+@Component
+public class ToolCallObservations {
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final TargetTags targetTags;
+
+    public ToolCallObservations(ObservationRegistry observationRegistry, MeterRegistry meterRegistry,
+                                TargetTags targetTags) {
+        this.observationRegistry = observationRegistry;
+        this.meterRegistry = meterRegistry;
+        this.targetTags = targetTags;
+    }
+
+    public <T> Mono<T> observe(String tool, Map<String, Object> arguments, Mono<T> call) {
+        return Mono.defer(() -> {
+            CfApiUsage usage = new CfApiUsage();
+            Observation observation = Observation.createNotStarted("mcp.tool.call", observationRegistry)
+                    .contextualName(tool)
+                    .lowCardinalityKeyValue("tool", tool)
+                    .start();
+            return call
+                    .doOnError(observation::error)
+                    .doFinally(signal -> {
+                        String foundation = argument(arguments, "foundation");
+                        observation.lowCardinalityKeyValue("foundation", targetTags.foundation(foundation))
+                                .lowCardinalityKeyValue("org", targetTags.org(foundation, argument(arguments, "org")))
+                                .lowCardinalityKeyValue("outcome", outcome(signal))
+                                .stop();
+                        record("mcp.tool.cf.requests", null, tool, usage.requests());
+                        record("mcp.tool.cf.pages", null, tool, usage.pages());
+                        record("mcp.tool.cf.bytes", "bytes", tool, usage.bytes());
+                    })
+                    .contextWrite(context -> context
+                            .put(CfApiUsage.class, usage)
+                            .put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    private void record(String name, String baseUnit, String tool, long amount) {
+        DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tag("tool", tool)
+                .register(meterRegistry)
+                .record(amount);
+    }
+
+    private static String argument(Map<String, Object> arguments, String name) {
+        Object value = arguments.get(name);
+        return value == null ? null : value.toString();
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+    }
+}
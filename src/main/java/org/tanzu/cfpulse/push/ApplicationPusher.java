@@ -0,0 +1,237 @@
+package org.tanzu.cfpulse.push;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.ClientV2Exception;
+import org.cloudfoundry.client.v2.applications.ApplicationEntity;
+import org.cloudfoundry.client.v2.applications.GetApplicationRequest;
+import org.cloudfoundry.client.v2.applications.GetApplicationResponse;
+import org.cloudfoundry.client.v2.applications.Resource;
+import org.cloudfoundry.client.v2.applications.UpdateApplicationRequest;
+import org.cloudfoundry.client.v2.applications.UploadApplicationRequest;
+import org.cloudfoundry.client.v2.resourcematch.ListMatchingResourcesRequest;
+import org.cloudfoundry.client.v3.Metadata;
+import org.cloudfoundry.operations.CloudFoundryOperations;
+import org.cloudfoundry.operations.applications.PushApplicationRequest;
+import org.cloudfoundry.util.JobUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.tanzu.cfpulse.cf.Foundation;
+import org.tanzu.cfpulse.jobs.Job;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes a JAR so that an app which already exists only receives what changed. The bits last uploaded are recorded
+ * as annotations on the app; when the JAR still has the same bits hash and nobody uploaded other bits since, the
+ * upload is skipped and the existing package is staged again, or its droplet reused, on start. Otherwise only the
+ * files the Cloud Controller cannot match from its resource cache are sent, copied from the JAR without being
+ * inflated and compressed again. New apps go through the regular push.
+ */
+@Component
+public class ApplicationPusher {
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationPusher.class);
+    private static final String BITS_ANNOTATION = "cfpulse.tanzu.org/bits-sha1";
+    private static final String PACKAGE_ANNOTATION = "cfpulse.tanzu.org/package-updated-at";
+
+    private final JarHashCache hashes;
+    private final Duration uploadTimeout;
+
+    public ApplicationPusher(JarHashCache hashes, @Value("${cf.push.uploadTimeout:15m}") Duration uploadTimeout) {
+        this.hashes = hashes;
+        this.uploadTimeout = uploadTimeout;
+    }
+
+    public Mono<Void> push(Foundation target, CloudFoundryOperations operations, String org, String space,
+                           PushApplicationRequest request, Job job) {
+        CloudFoundryClient client = target.cloudFoundryClient();
+        Path jar = request.getPath();
+        return job.step("hashing", Mono.fromCallable(() -> hashes.index(jar)).subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(index -> existing(target, org, space, request.getName())
+                        .flatMap(application -> update(client, application, jar, index, request, job).thenReturn(true))
+                        .switchIfEmpty(Mono.defer(() -> job.step("uploading", operations.applications().push(request))
+                                .then(target.inventory().applicationId(org, space, request.getName())
+                                        .onErrorResume(e -> Mono.empty()))
+                                .flatMap(applicationId -> remember(client, applicationId, index))
+                                .thenReturn(false))))
+                .then();
+    }
+
+    private static Mono<GetApplicationResponse> existing(Foundation target, String org, String space, String name) {
+        return target.inventory().applicationId(org, space, name)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.empty())
+                .flatMap(applicationId -> target.cloudFoundryClient().applicationsV2()
+                        .get(GetApplicationRequest.builder().applicationId(applicationId).build()))
+                .onErrorResume(ClientV2Exception.class, e -> e.getStatusCode() == 404 ? Mono.empty() : Mono.error(e));
+    }
+
+    /**
+     * Mirrors what a push does to an existing app: stop it, apply memory, disk and buildpack, then upload the bits
+     * unless they are the ones it already has.
+     */
+    private Mono<Void> update(CloudFoundryClient client, GetApplicationResponse application, Path jar, JarIndex index,
+                              PushApplicationRequest request, Job job) {
+        String applicationId = application.getMetadata().getId();
+        UpdateApplicationRequest updateRequest = UpdateApplicationRequest.builder()
+                .applicationId(applicationId)
+                .state("STOPPED")
+                .memory(request.getMemory())
+                .diskQuota(request.getDiskQuota())
+                .buildpack(buildpack(request))
+                .build();
+        return job.step("configuring", client.applicationsV2().update(updateRequest))
+                .then(annotations(client, applicationId))
+                .flatMap(annotations -> {
+                    if (unchanged(annotations, application.getEntity(), index)) {
+                        logger.debug("Bits of {} are unchanged, skipping the upload", request.getName());
+                        job.step("reusing uploaded bits");
+                        return Mono.empty();
+                    }
+                    return upload(client, applicationId, jar, index, job)
+                            .then(remember(client, applicationId, index));
+                });
+    }
+
+    /**
+     * The buildpack to set, if exactly one was given; the builder leaves {@code buildpacks} null when none was.
+     */
+    private static String buildpack(PushApplicationRequest request) {
+        List<String> buildpacks = request.getBuildpacks();
+        return buildpacks != null && buildpacks.size() == 1 ? buildpacks.get(0) : null;
+    }
+
+    private static boolean unchanged(Map<String, String> annotations, ApplicationEntity application, JarIndex index) {
+        return index.bitsHash().equals(annotations.get(BITS_ANNOTATION))
+                && application.getPackageUpdatedAt() != null
+                && application.getPackageUpdatedAt().equals(annotations.get(PACKAGE_ANNOTATION));
+    }
+
+    private static Mono<Map<String, String>> annotations(CloudFoundryClient client, String applicationId) {
+        return client.applicationsV3()
+                .get(org.cloudfoundry.client.v3.applications.GetApplicationRequest.builder().applicationId(applicationId).build())
+                .map(application -> application.getMetadata() == null || application.getMetadata().getAnnotations() == null
+                        ? Map.<String, String>of() : application.getMetadata().getAnnotations())
+                .onErrorReturn(Map.of());
+    }
+
+    private Mono<Void> upload(CloudFoundryClient client, String applicationId, Path jar, JarIndex index, Job job) {
+        return job.step("matching resources", matched(client, index))
+                .flatMap(matched -> job.step("uploading", Mono.usingWhen(
+                        Mono.fromCallable(() -> matched.isEmpty() ? jar : unmatched(jar, index, matched))
+                                .subscribeOn(Schedulers.boundedElastic()),
+                        bits -> client.applicationsV2().upload(UploadApplicationRequest.builder()
+                                        .applicationId(applicationId)
+                                        .application(bits)
+                                        .resources(resources(index, matched))
+                                        .async(true)
+                                        .build())
+                                .flatMap(response -> JobUtils.waitForCompletion(client, uploadTimeout, response)),
+                        bits -> Mono.fromRunnable(() -> delete(bits, jar)))));
+    }
+
+    /**
+     * The hashes the Cloud Controller already has in its resource cache. Files with the same content are asked for
+     * once.
+     */
+    private static Mono<Set<String>> matched(CloudFoundryClient client, JarIndex index) {
+        Map<String, JarIndex.Entry> byHash = index.entries().stream()
+                .collect(Collectors.toMap(JarIndex.Entry::hash, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+        ListMatchingResourcesRequest request = ListMatchingResourcesRequest.builder()
+                .resources(byHash.values().stream()
+                        .map(entry -> org.cloudfoundry.client.v2.resourcematch.Resource.builder()
+                                .hash(entry.hash())
+                                .mode(entry.mode())
+                                .size(entry.size())
+                                .build())
+                        .toList())
+                .build();
+        return client.resourceMatch().list(request)
+                .map(response -> response.getResources().stream()
+                        .map(org.cloudfoundry.client.v2.resourcematch.Resource::getHash)
+                        .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    private static List<Resource> resources(JarIndex index, Set<String> matched) {
+        return index.entries().stream()
+                .filter(entry -> matched.contains(entry.hash()))
+                .map(entry -> Resource.builder()
+                        .hash(entry.hash())
+                        .mode(entry.mode())
+                        .path(entry.path())
+                        .size(entry.size())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Writes the entries that were not matched to a temporary zip. They are copied in their compressed form.
+     */
+    private static Path unmatched(Path jar, JarIndex index, Set<String> matched) throws IOException {
+        Set<String> skipped = index.entries().stream()
+                .filter(entry -> matched.contains(entry.hash()))
+                .map(JarIndex.Entry::path)
+                .collect(Collectors.toSet());
+        Path bits = Files.createTempFile("cfpulse-push-", ".zip");
+        try (ZipFile source = ZipFile.builder().setPath(jar).get();
+             ZipArchiveOutputStream out = new ZipArchiveOutputStream(bits)) {
+            for (ZipArchiveEntry entry : Collections.list(source.getEntries())) {
+                if (!skipped.contains(entry.getName())) {
+                    out.addRawArchiveEntry(entry, source.getRawInputStream(entry));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(bits);
+            throw e;
+        }
+        logger.debug("Uploading {} of {} files of {}", index.entries().size() - skipped.size(), index.entries().size(), jar);
+        return bits;
+    }
+
+    private static void delete(Path bits, Path jar) {
+        if (bits.equals(jar)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(bits);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records which bits the app now has. Failing to do so only costs a full resource-matched upload next time.
+     */
+    private static Mono<Void> remember(CloudFoundryClient client, String applicationId, JarIndex index) {
+        return client.applicationsV2().get(GetApplicationRequest.builder().applicationId(applicationId).build())
+                .map(application -> Objects.requireNonNullElse(application.getEntity().getPackageUpdatedAt(), ""))
+                .flatMap(packageUpdatedAt -> client.applicationsV3().update(
+                        org.cloudfoundry.client.v3.applications.UpdateApplicationRequest.builder()
+                                .applicationId(applicationId)
+                                .metadata(Metadata.builder()
+                                        .annotation(BITS_ANNOTATION, index.bitsHash())
+                                        .annotation(PACKAGE_ANNOTATION, packageUpdatedAt)
+                                        .build())
+                                .build()))
+                .doOnError(e -> logger.debug("Could not record the bits of application {}: {}", applicationId, e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+}
@@ -0,0 +1,121 @@
+package org.tanzu.cfpulse.push;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.cloudfoundry.util.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Hashes the entries of a JAR for resource matching and remembers the result by path, modification time and size,
+ * so pushing the same JAR again does not read it again. When a JAR was rebuilt, entries whose name, CRC and size
+ * are unchanged keep their previous hash and only the others are read; in a Spring Boot JAR that is usually just
+ * the application's own classes.
+ */
+@Component
+public class JarHashCache {
+    private static final Logger logger = LoggerFactory.getLogger(JarHashCache.class);
+
+    private final Cache<Path, Snapshot> snapshots;
+
+    public JarHashCache(MeterRegistry meterRegistry,
+                        @Value("${cf.push.hashCache.maximumSize:32}") long maximumSize) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "cfPushHashes");
+    }
+
+    JarIndex index(Path jar) throws IOException {
+        Path path = jar.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Snapshot previous = snapshots.getIfPresent(path);
+        if (previous != null && previous.matches(attributes)) {
+            return previous.index();
+        }
+        JarIndex index = hash(path, previous == null ? Map.of() : previous.index().entries().stream()
+                .collect(Collectors.toMap(JarIndex.Entry::path, Function.identity(), (a, b) -> a)));
+        snapshots.put(path, new Snapshot(attributes.lastModifiedTime(), attributes.size(), index));
+        return index;
+    }
+
+    private static JarIndex hash(Path jar, Map<String, JarIndex.Entry> previous) throws IOException {
+        MessageDigest digest = sha1();
+        byte[] buffer = new byte[64 * 1024];
+        List<JarIndex.Entry> entries = new ArrayList<>();
+        int read = 0;
+        try (ZipFile zipFile = ZipFile.builder().setPath(jar).get()) {
+            for (ZipArchiveEntry entry : Collections.list(zipFile.getEntries())) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String mode = FileUtils.permissions(entry.getUnixMode());
+                JarIndex.Entry known = previous.get(entry.getName());
+                if (known != null && known.crc() == entry.getCrc() && known.size() == entry.getSize()
+                        && known.mode().equals(mode)) {
+                    entries.add(known);
+                    continue;
+                }
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    int length;
+                    while ((length = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, length);
+                    }
+                }
+                entries.add(new JarIndex.Entry(entry.getName(), HexFormat.of().formatHex(digest.digest()), mode,
+                        (int) entry.getSize(), entry.getCrc()));
+                read++;
+            }
+        }
+        logger.debug("Hashed {}: read {} of {} entries", jar, read, entries.size());
+        return new JarIndex(List.copyOf(entries), bitsHash(entries, digest));
+    }
+
+    private static String bitsHash(List<JarIndex.Entry> entries, MessageDigest digest) {
+        entries.stream()
+                .sorted(Comparator.comparing(JarIndex.Entry::path))
+                .forEach(entry -> digest.update((entry.path() + '\0' + entry.hash() + '\0' + entry.mode() + '\n')
+                        .getBytes(StandardCharsets.UTF_8)));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Snapshot(FileTime modified, long size, JarIndex index) {
+
+        boolean matches(BasicFileAttributes attributes) {
+            return modified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.tanzu.cfpulse.push;
+
+import java.util.List;
+
+/**
+ * The files of a JAR with the SHA-1 that Cloud Controller resource matching asks for, plus a hash over all of them
+ * that identifies the bits as a whole.
+ */
+record JarIndex(List<Entry> entries, String bitsHash) {
+
+    /**
+     * A file in the JAR. {@code crc} and {@code size} come from the zip directory and tell whether the hash of a
+     * rebuilt JAR's entry can be carried over without reading it again.
+     */
+    record Entry(String path, String hash, String mode, int size, long crc) {
+    }
+}
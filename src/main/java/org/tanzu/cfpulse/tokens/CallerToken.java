@@ -0,0 +1,60 @@
+package org.tanzu.cfpulse.tokens;
+
+import io.micrometer.context.ContextRegistry;
+import reactor.core.publisher.Hooks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * The Cloud Foundry token forwarded by the caller of the current request, if any. {@link CallerTokenFilter} sets it on
+ * the request thread; once {@link #propagate()} has run it follows the tool call onto Reactor threads and into
+ * background jobs through the context-propagation library.
+ */
+public final class CallerToken {
+    private static final String KEY = "cfpulse.callerToken";
+    private static final ThreadLocal<String> TOKEN = new ThreadLocal<>();
+
+    private CallerToken() {
+    }
+
+    /**
+     * The caller's token without its {@code bearer} prefix, or null when the configured account is to be used.
+     */
+    public static String current() {
+        return TOKEN.get();
+    }
+
+    /**
+     * A digest of the caller's token that keeps the callers' caches, streams and jobs apart without holding on to the
+     * token itself, or null for the configured account.
+     */
+    public static String id() {
+        String token = TOKEN.get();
+        return token == null ? null : digest(token);
+    }
+
+    static void set(String token) {
+        TOKEN.set(token);
+    }
+
+    static void clear() {
+        TOKEN.remove();
+    }
+
+    static void propagate() {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(KEY, TOKEN::get, TOKEN::set, TOKEN::remove);
+        Hooks.enableAutomaticContextPropagation();
+    }
+
+    private static String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
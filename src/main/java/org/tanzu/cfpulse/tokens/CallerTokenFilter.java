@@ -0,0 +1,54 @@
+package org.tanzu.cfpulse.tokens;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Lets MCP clients act as their own Cloud Foundry user by forwarding a UAA token as {@code Authorization: Bearer}.
+ * Requests without one act as the configured account, unless {@code cf.tokens.callerTokens.required} is set, in
+ * which case they are refused. The token is not validated here: the Cloud Controller does that on every call.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cf.tokens.callerTokens", name = "enabled", havingValue = "true")
+public class CallerTokenFilter extends OncePerRequestFilter {
+    private static final String BEARER = "bearer ";
+
+    private final boolean required;
+
+    public CallerTokenFilter(@Value("${cf.tokens.callerTokens.required:false}") boolean required) {
+        this.required = required;
+        CallerToken.propagate();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String token = authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())
+                ? authorization.substring(BEARER.length()).trim()
+                : null;
+        if (token == null || token.isEmpty()) {
+            if (required && !request.getRequestURI().startsWith("/actuator")) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "A Cloud Foundry bearer token is required");
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+        CallerToken.set(token);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            CallerToken.clear();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.tanzu.cfpulse.tokens;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.cloudfoundry.reactor.ConnectionContext;
+import org.cloudfoundry.reactor.TokenProvider;
+import org.springframework.ai.util.json.JsonParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the token of a configured account valid ahead of time. {@link #refreshIfExpiring} is called on a schedule and
+ * renews the token once it gets within a margin of its {@code exp} claim, so tool calls find a valid token instead of
+ * waiting for UAA when it runs out. Concurrent refreshes, scheduled or after a 401, share one UAA request. The
+ * delegate does the grants and keeps the refresh token.
+ */
+public final class RefreshingTokenProvider implements TokenProvider {
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(10);
+
+    private final TokenProvider delegate;
+    private final AtomicReference<Token> current = new AtomicReference<>();
+    private final AtomicReference<Mono<String>> refreshing = new AtomicReference<>();
+
+    public RefreshingTokenProvider(TokenProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<String> getToken(ConnectionContext connectionContext) {
+        return Mono.defer(() -> {
+            Token token = current.get();
+            return token != null && token.expiresAt().isAfter(Instant.now().plus(CLOCK_SKEW))
+                    ? Mono.just(token.value())
+                    : refresh(connectionContext);
+        });
+    }
+
+    @Override
+    public void invalidate(ConnectionContext connectionContext) {
+        current.set(null);
+    }
+
+    /**
+     * Renews the token when it expires within {@code margin}. Completes empty when there is no token yet or it is
+     * still good for longer, the first one is fetched by the first request.
+     */
+    public Mono<String> refreshIfExpiring(ConnectionContext connectionContext, Duration margin) {
+        return Mono.defer(() -> {
+            Token token = current.get();
+            return token == null || token.expiresAt().isAfter(Instant.now().plus(margin))
+                    ? Mono.empty()
+                    : refresh(connectionContext);
+        });
+    }
+
+    private Mono<String> refresh(ConnectionContext connectionContext) {
+        AtomicReference<Mono<String>> shared = new AtomicReference<>();
+        shared.set(Mono.defer(() -> {
+                    delegate.invalidate(connectionContext);
+                    return delegate.getToken(connectionContext);
+                })
+                .doOnNext(value -> current.set(Token.of(value)))
+                .doFinally(signal -> refreshing.compareAndSet(shared.get(), null))
+                .cache());
+        return refreshing.updateAndGet(running -> running != null ? running : shared.get());
+    }
+
+    /**
+     * A token and when it expires; tokens that are not a JWT with an {@code exp} claim are used until a 401
+     * invalidates them.
+     */
+    private record Token(String value, Instant expiresAt) {
+
+        static Token of(String value) {
+            String[] parts = value.substring(value.indexOf(' ') + 1).split("\\.");
+            if (parts.length == 3) {
+                try {
+                    JsonNode claims = JsonParser.getObjectMapper().readTree(Base64.getUrlDecoder().decode(parts[1]));
+                    if (claims.path("exp").canConvertToLong()) {
+                        return new Token(value, Instant.ofEpochSecond(claims.path("exp").asLong()));
+                    }
+                } catch (Exception e) {
+                    // not a JWT after all
+                }
+            }
+            return new Token(value, Instant.MAX);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.tanzu.cfpulse.cf;
+
+import org.cloudfoundry.reactor.DefaultConnectionContext;
+import org.cloudfoundry.reactor.client.ReactorCloudFoundryClient;
+import org.cloudfoundry.reactor.tokenprovider.PasswordGrantTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tanzu.cfpulse.mcp.ResultProjector;
+import org.tanzu.cfpulse.stub.StubCloudController;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CfFoundationToolsTest {
+    private StubCloudController stub;
+    private DefaultConnectionContext connectionContext;
+    private FoundationRegistry foundations;
+
+    @BeforeEach
+    void setUp() {
+        stub = new StubCloudController(3, 2, 50);
+        stub.addOrganization("empty");
+        connectionContext = DefaultConnectionContext.builder()
+                .apiHost("127.0.0.1")
+                .port(stub.port())
+                .secure(false)
+                .build();
+        ReactorCloudFoundryClient cloudFoundryClient = ReactorCloudFoundryClient.builder()
+                .connectionContext(connectionContext)
+                .tokenProvider(PasswordGrantTokenProvider.builder().username("test").password("test").build())
+                .build();
+        Foundation foundation = new Foundation("default", null, "127.0.0.1", null, connectionContext, null,
+                cloudFoundryClient, null, null, null, null, null);
+        foundations = mock(FoundationRegistry.class);
+        when(foundations.select(null)).thenReturn(List.of(foundation));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionContext.dispose();
+        stub.close();
+    }
+
+    @Test
+    void orgWithoutSpacesHasNoServiceInstances() {
+        assertThat(tools(16000).foundationServiceInstances("empty", null, null, null, null, "json")
+                .block(Duration.ofSeconds(10)).text())
+                .isEqualTo("[]");
+    }
+
+    @Test
+    void orgFilterOnlyReturnsServiceInstancesOfItsSpaces() {
+        assertThat(tools(16000).foundationServiceInstances("org1", null, null, null, "name,type,org,space", null)
+                .block(Duration.ofSeconds(10)).text())
+                .isEqualTo("""
+                        name|type|org|space
+                        db|managed|org1|space0
+                        credentials|user-provided|org1|space1
+                        """);
+    }
+
+    @Test
+    void resultsAreProjectedAndCapped() {
+        String text = tools(100).foundationApplications(null, null, null, null, "org,space,name", null)
+                .block(Duration.ofSeconds(10)).text();
+
+        assertThat(text).startsWith("org|space|name\norg0|space0|app0\n")
+                .endsWith("[truncated: 5 of 12 items shown, select fewer fields or narrow the request]");
+    }
+
+    private CfFoundationTools tools(int maxChars) {
+        return new CfFoundationTools(foundations, 5000, 8, new ResultProjector(maxChars));
+    }
+}
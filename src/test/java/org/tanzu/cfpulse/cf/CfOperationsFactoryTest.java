@@ -0,0 +1,112 @@
+package org.tanzu.cfpulse.cf;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cloudfoundry.operations.applications.ApplicationSummary;
+import org.cloudfoundry.reactor.DefaultConnectionContext;
+import org.cloudfoundry.reactor.TokenProvider;
+import org.cloudfoundry.reactor.client.ReactorCloudFoundryClient;
+import org.cloudfoundry.reactor.doppler.ReactorDopplerClient;
+import org.cloudfoundry.reactor.tokenprovider.PasswordGrantTokenProvider;
+import org.cloudfoundry.reactor.uaa.ReactorUaaClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tanzu.cfpulse.stub.StubCloudController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent calls for different orgs and spaces, each building its operations on its own worker thread, must only
+ * ever see the applications of the space they asked for.
+ */
+class CfOperationsFactoryTest {
+    private static final int ORGANIZATIONS = 5;
+    private static final int CALLS = 400;
+
+    private StubCloudController stub;
+    private DefaultConnectionContext connectionContext;
+    private CfOperationsFactory operationsFactory;
+    private Scheduler callers;
+
+    @BeforeEach
+    void setUp() {
+        stub = new StubCloudController(ORGANIZATIONS, 3, 50);
+        callers = Schedulers.newParallel("callers", 16);
+        connectionContext = DefaultConnectionContext.builder()
+                .apiHost("127.0.0.1")
+                .port(stub.port())
+                .secure(false)
+                .build();
+        TokenProvider tokenProvider = PasswordGrantTokenProvider.builder()
+                .username("test")
+                .password("test")
+                .build();
+        operationsFactory = new CfOperationsFactory(
+                ReactorCloudFoundryClient.builder().connectionContext(connectionContext).tokenProvider(tokenProvider).build(),
+                ReactorDopplerClient.builder().connectionContext(connectionContext).tokenProvider(tokenProvider).build(),
+                ReactorUaaClient.builder().connectionContext(connectionContext).tokenProvider(tokenProvider).build(),
+                Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.dispose();
+        connectionContext.dispose();
+        stub.close();
+    }
+
+    @Test
+    void concurrentCallsOnlyReachTheirOwnTarget() {
+        List<Result> results = Flux.range(0, CALLS)
+                .flatMap(call -> {
+                    String org = "org" + call % ORGANIZATIONS;
+                    String space = "space" + call / ORGANIZATIONS % 2;
+                    return Mono.fromCallable(() -> operationsFactory.create(org, space))
+                            .subscribeOn(callers)
+                            .flatMap(operations -> operations.applications().list().collectList())
+                            .map(applications -> new Result(org, space, applications));
+                }, 64)
+                .collectList()
+                .block(Duration.ofMinutes(1));
+
+        assertThat(results).hasSize(CALLS);
+        for (Result result : results) {
+            String spaceGuid = "org-" + result.org().substring(3) + "-space-" + result.space().substring(5);
+            assertThat(result.applications())
+                    .as("applications of %s/%s", result.org(), result.space())
+                    .hasSize(3)
+                    .allSatisfy(application -> assertThat(application.getId()).startsWith(spaceGuid + "-app-"));
+        }
+    }
+
+    @Test
+    void cachedOperationsKeepTheirTargetUnderConcurrency() {
+        CfOperationsCache operationsCache = new CfOperationsCache("test", operationsFactory,
+                new SimpleMeterRegistry(), 16, Duration.ofMinutes(1));
+        List<Boolean> matches = Flux.range(0, CALLS)
+                .flatMap(call -> {
+                    String org = "org" + call % ORGANIZATIONS;
+                    String space = "space" + call / ORGANIZATIONS % 2;
+                    String spaceGuid = "org-" + call % ORGANIZATIONS + "-space-" + call / ORGANIZATIONS % 2;
+                    return Mono.fromCallable(() -> operationsCache.get(org, space))
+                            .subscribeOn(callers)
+                            .flatMap(operations -> operations.applications().list().collectList())
+                            .map(applications -> !applications.isEmpty() && applications.stream()
+                                    .allMatch(application -> application.getId().startsWith(spaceGuid + "-app-")));
+                }, 64)
+                .collectList()
+                .block(Duration.ofMinutes(1));
+
+        assertThat(matches).hasSize(CALLS).containsOnly(true);
+    }
+
+    private record Result(String org, String space, List<ApplicationSummary> applications) {
+    }
+}
@@ -0,0 +1,111 @@
+package org.tanzu.cfpulse.cf;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cloudfoundry.client.v2.stacks.ListStacksRequest;
+import org.cloudfoundry.client.v3.organizations.ListOrganizationsRequest;
+import org.cloudfoundry.client.v3.spaces.ListSpacesRequest;
+import org.cloudfoundry.reactor.DefaultConnectionContext;
+import org.cloudfoundry.reactor.client.ReactorCloudFoundryClient;
+import org.cloudfoundry.reactor.tokenprovider.PasswordGrantTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tanzu.cfpulse.metrics.CfApiMetrics;
+import org.tanzu.cfpulse.stub.StubCloudController;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs the Cloud Foundry client on the {@code cfHttpClient} of {@link CfConfiguration}, with its
+ * {@link ConnectionReuseHandler}, against the stub and watches the connections from the server side.
+ */
+class ConnectionReuseHandlerTest {
+    private StubCloudController stub;
+    private ConnectionProvider connectionProvider;
+    private LoopResources loopResources;
+    private DefaultConnectionContext connectionContext;
+    private ReactorCloudFoundryClient cloudFoundryClient;
+
+    @BeforeEach
+    void setUp() {
+        stub = new StubCloudController(2, 3, 50);
+        CfConfiguration configuration = new CfConfiguration();
+        connectionProvider = configuration.cfConnectionProvider(4, Duration.ofSeconds(45), Duration.ofSeconds(50),
+                Duration.ofMinutes(10), Duration.ofSeconds(30));
+        loopResources = configuration.cfLoopResources(1);
+        connectionContext = DefaultConnectionContext.builder()
+                .apiHost("127.0.0.1")
+                .port(stub.port())
+                .secure(false)
+                .httpClient(configuration.cfHttpClient(connectionProvider, loopResources, Duration.ofSeconds(10),
+                        true, false, new CfApiMetrics(new SimpleMeterRegistry())))
+                .build();
+        cloudFoundryClient = ReactorCloudFoundryClient.builder()
+                .connectionContext(connectionContext)
+                .tokenProvider(PasswordGrantTokenProvider.builder().username("test").password("test").build())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionContext.dispose();
+        connectionProvider.dispose();
+        loopResources.dispose();
+        stub.close();
+    }
+
+    @Test
+    void completedExchangesReuseTheirConnection() {
+        organizations();
+        int connections = stub.connections();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(organizations()).isEqualTo(2);
+        }
+
+        assertThat(stub.connections()).isEqualTo(connections);
+        assertThat(stub.openConnections()).isEqualTo(connections);
+    }
+
+    @Test
+    void errorResponseLeavesItsConnectionUsable() {
+        organizations();
+        int connections = stub.connections();
+
+        assertThatThrownBy(() -> cloudFoundryClient.stacks().list(ListStacksRequest.builder().build())
+                .block(Duration.ofSeconds(10)))
+                .hasMessageContaining("CF-NotFound");
+
+        assertThat(organizations()).isEqualTo(2);
+        assertThat(stub.connections()).isEqualTo(connections);
+        assertThat(stub.openConnections()).isEqualTo(connections);
+    }
+
+    @Test
+    void abandonedExchangeClosesItsConnection() {
+        organizations();
+        int open = stub.openConnections();
+        stub.stall("/v3/spaces");
+
+        assertThatThrownBy(() -> cloudFoundryClient.spacesV3().list(ListSpacesRequest.builder().build())
+                .timeout(Duration.ofSeconds(1))
+                .block())
+                .hasCauseInstanceOf(TimeoutException.class);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> stub.openConnections() == open - 1);
+        assertThat(organizations()).isEqualTo(2);
+    }
+
+    private int organizations() {
+        return cloudFoundryClient.organizationsV3().list(ListOrganizationsRequest.builder().build())
+                .map(response -> response.getResources().size())
+                .block(Duration.ofSeconds(10));
+    }
+}
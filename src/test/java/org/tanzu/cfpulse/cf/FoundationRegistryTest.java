@@ -0,0 +1,52 @@
+package org.tanzu.cfpulse.cf;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.tanzu.cfpulse.stub.StubCloudController;
+import org.tanzu.cfpulse.tokens.CallerTokenFilter;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FoundationRegistryTest {
+    private StubCloudController stub;
+    private FoundationRegistry foundations;
+
+    @BeforeEach
+    void setUp() {
+        stub = new StubCloudController(2, 3, 50);
+        foundations = new FoundationRegistry(
+                new FoundationProperties("127.0.0.1", stub.port(), false, "test", "test", false, null, null),
+                HttpClient.create(), new SimpleMeterRegistry(), Duration.ofSeconds(10), 16, Duration.ofMinutes(10),
+                Duration.ofMinutes(5), Duration.ofMinutes(10), 100, 50, 4, Duration.ofSeconds(60),
+                Duration.ofMinutes(2), 10, Duration.ofMinutes(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        foundations.dispose();
+        stub.close();
+    }
+
+    @Test
+    void callerInventoriesAreSynced() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer caller-token");
+        AtomicReference<Foundation> caller = new AtomicReference<>();
+        new CallerTokenFilter(false).doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> caller.set(foundations.get(null)));
+        assertThat(caller.get().caller()).isNotNull();
+        caller.get().inventory().organizations(null).block(Duration.ofSeconds(10));
+
+        foundations.refreshInventories();
+
+        assertThat(stub.requests("/v3/audit_events")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,82 @@
+package org.tanzu.cfpulse.inventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cloudfoundry.reactor.DefaultConnectionContext;
+import org.cloudfoundry.reactor.TokenProvider;
+import org.cloudfoundry.reactor.client.ReactorCloudFoundryClient;
+import org.cloudfoundry.reactor.doppler.ReactorDopplerClient;
+import org.cloudfoundry.reactor.tokenprovider.PasswordGrantTokenProvider;
+import org.cloudfoundry.reactor.uaa.ReactorUaaClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tanzu.cfpulse.cf.CfOperationsCache;
+import org.tanzu.cfpulse.cf.CfOperationsFactory;
+import org.tanzu.cfpulse.stub.StubCloudController;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CfInventoryTest {
+    private static final String SPACE_SUMMARY = "/v2/spaces/org-0-space-0/summary";
+
+    private StubCloudController stub;
+    private DefaultConnectionContext connectionContext;
+    private CfInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        stub = new StubCloudController(2, 3, 50);
+        connectionContext = DefaultConnectionContext.builder()
+                .apiHost("127.0.0.1")
+                .port(stub.port())
+                .secure(false)
+                .build();
+        TokenProvider tokenProvider = PasswordGrantTokenProvider.builder()
+                .username("test")
+                .password("test")
+                .build();
+        ReactorCloudFoundryClient cloudFoundryClient = ReactorCloudFoundryClient.builder()
+                .connectionContext(connectionContext).tokenProvider(tokenProvider).build();
+        CfOperationsFactory operationsFactory = new CfOperationsFactory(cloudFoundryClient,
+                ReactorDopplerClient.builder().connectionContext(connectionContext).tokenProvider(tokenProvider).build(),
+                ReactorUaaClient.builder().connectionContext(connectionContext).tokenProvider(tokenProvider).build(),
+                Duration.ofMinutes(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        inventory = new CfInventory("test", cloudFoundryClient,
+                new CfOperationsCache("test", operationsFactory, meterRegistry, 16, Duration.ofMinutes(1)),
+                meterRegistry, Duration.ofMinutes(5), Duration.ofHours(1), 100, 50, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionContext.dispose();
+        stub.close();
+    }
+
+    @Test
+    void syncsWithoutChangesReloadNothing() {
+        inventory.applications("org0", "space0", null).block(Duration.ofSeconds(10));
+        inventory.refresh();
+        int loads = stub.requests(SPACE_SUMMARY);
+
+        inventory.refresh();
+        inventory.refresh();
+
+        assertThat(stub.requests(SPACE_SUMMARY)).isEqualTo(loads);
+    }
+
+    @Test
+    void changeAfterTheWatermarkIsReloaded() {
+        inventory.applications("org0", "space0", null).block(Duration.ofSeconds(10));
+        inventory.refresh();
+        int loads = stub.requests(SPACE_SUMMARY);
+
+        stub.touch("org-0-space-0-app-1");
+        inventory.refresh();
+        inventory.refresh();
+
+        assertThat(stub.requests(SPACE_SUMMARY)).isEqualTo(loads + 1);
+    }
+}
@@ -0,0 +1,120 @@
+package org.tanzu.cfpulse.logs;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LogAnalysisTest {
+    private static final Instant START = Instant.parse("2024-05-01T12:00:00Z");
+
+    @Test
+    void maskReplacesVariableParts() {
+        assertThat(LogAnalysis.mask("user 123e4567-e89b-12d3-a456-426614174000 from 10.0.0.1:8080 took 12.5ms, trace deadbeef01"))
+                .isEqualTo("user <uuid> from <ip> took <n>ms, trace <hex>");
+        assertThat(LogAnalysis.mask("cache deadbeefcafe miss")).isEqualTo("cache deadbeefcafe miss");
+    }
+
+    @Test
+    void messagesDifferingOnlyInValuesShareATemplate() {
+        LogAnalysis analysis = new LogAnalysis(Duration.ofMinutes(1), 10);
+        analysis.add(app(START, "OUT", "  Handled request 17 in 42ms  "));
+        analysis.add(app(START, "ERR", "Handled request 18 in 7ms"));
+
+        LogSummary summary = analysis.summary();
+
+        assertThat(summary.templates()).containsExactly(
+                new LogSummary.Template("Handled request <n> in <n>ms", 2, 1, "  Handled request 17 in 42ms  "));
+        assertThat(summary.templateError()).isNull();
+    }
+
+    @Test
+    void fullTemplateTableEvictsTheRarestTemplate() {
+        LogAnalysis analysis = new LogAnalysis(Duration.ofMinutes(1), 2);
+        for (int i = 0; i < 3; i++) {
+            analysis.add(app(START, "OUT", "frequent"));
+        }
+        for (int i = 1; i < LogAnalysis.TEMPLATE_CAPACITY; i++) {
+            analysis.add(app(START, "OUT", "rare " + letters(i)));
+        }
+        analysis.add(app(START, "OUT", "newcomer"));
+
+        LogSummary summary = analysis.summary();
+
+        assertThat(summary.templates()).extracting(LogSummary.Template::template, LogSummary.Template::count)
+                .containsExactly(tuple("frequent", 3L), tuple("newcomer", 2L));
+        assertThat(summary.templateError()).isEqualTo(1L);
+        assertThat(summary.lines()).isEqualTo(3 + LogAnalysis.TEMPLATE_CAPACITY);
+    }
+
+    @Test
+    void routerLinesCountStatusCodesInsteadOfTemplates() {
+        LogAnalysis analysis = new LogAnalysis(Duration.ofMinutes(1), 10);
+        analysis.add(router("\"GET /orders/17 HTTP/1.1\" 200 0 512 \"-\" \"curl/8.4.0\""));
+        analysis.add(router("\"POST /orders HTTP/1.1\" 201 128 64 \"-\" \"curl/8.4.0\""));
+        analysis.add(router("\"GET /orders/18 HTTP/1.1\" 503 0 67 \"-\" \"curl/8.4.0\""));
+        analysis.add(router("\"GET /orders/19 HTTP/1.1\" 200 0 512 \"-\" \"curl/8.4.0\""));
+        analysis.add(router("not an access log line"));
+
+        LogSummary summary = analysis.summary();
+
+        assertThat(summary.statusCodes()).containsExactly(Map.entry("200", 2L), Map.entry("201", 1L),
+                Map.entry("503", 1L));
+        assertThat(summary.errors()).isEqualTo(1);
+        assertThat(summary.templates()).isEmpty();
+        assertThat(summary.instances()).containsEntry("RTR/0", new LogSummary.Counts(5, 1));
+    }
+
+    @Test
+    void linesAreBucketedIntoWindows() {
+        LogAnalysis analysis = new LogAnalysis(Duration.ofMinutes(1), 10);
+        analysis.add(app(START.plusSeconds(59), "OUT", "late in the first minute"));
+        analysis.add(app(START, "OUT", "start of the first minute"));
+        analysis.add(app(START.plusSeconds(61), "OUT", "java.lang.IllegalStateException: boom"));
+
+        LogSummary summary = analysis.summary();
+
+        assertThat(summary.windows()).containsExactly(
+                new LogSummary.Window(START, 2, 0, 0.0),
+                new LogSummary.Window(START.plusSeconds(60), 1, 1, 1.0));
+        assertThat(summary.from()).isEqualTo(START);
+        assertThat(summary.to()).isEqualTo(START.plusSeconds(61));
+    }
+
+    @Test
+    void oldestWindowsAreDroppedBeyondTheLimit() {
+        LogAnalysis analysis = new LogAnalysis(Duration.ofSeconds(1), 10);
+        for (int i = 0; i <= LogAnalysis.MAX_WINDOWS; i++) {
+            analysis.add(app(START.plusSeconds(i), "OUT", "tick"));
+        }
+        analysis.add(app(START, "OUT", "straggler"));
+
+        LogSummary summary = analysis.summary();
+
+        assertThat(summary.windows()).hasSize(LogAnalysis.MAX_WINDOWS);
+        assertThat(summary.windows().getFirst().start()).isEqualTo(START.plusSeconds(1));
+        assertThat(summary.lines()).isEqualTo(LogAnalysis.MAX_WINDOWS + 2);
+        assertThat(summary.from()).isEqualTo(START);
+    }
+
+    private static LogLine app(Instant timestamp, String stream, String message) {
+        return new LogLine(timestamp, "APP/PROC/WEB", "0", stream, message);
+    }
+
+    private static LogLine router(String message) {
+        return new LogLine(START, "RTR", "0", "OUT",
+                "shop.example.com - [2024-05-01T12:00:00.000Z] " + message + " x_forwarded_for:\"-\"");
+    }
+
+    private static String letters(int i) {
+        StringBuilder letters = new StringBuilder();
+        for (; i > 0; i /= 26) {
+            letters.append((char) ('a' + i % 26));
+        }
+        return letters.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package org.tanzu.cfpulse.logs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cloudfoundry.doppler.DopplerClient;
+import org.cloudfoundry.doppler.Envelope;
+import org.cloudfoundry.doppler.EventType;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tanzu.cfpulse.cf.Foundation;
+import org.tanzu.cfpulse.cf.FoundationRegistry;
+import org.tanzu.cfpulse.doppler.DopplerStreams;
+import org.tanzu.cfpulse.inventory.CfInventory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogServiceTest {
+    private static final String APPLICATION_ID = "app-guid";
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final Sinks.Many<Envelope> doppler = Sinks.many().multicast().directBestEffort();
+    private DopplerClient dopplerClient;
+    private LogTools logTools;
+
+    @BeforeEach
+    void setUp() {
+        dopplerClient = mock(DopplerClient.class);
+        when(dopplerClient.recentLogs(any())).thenReturn(Flux.just(envelope("recent")));
+        DopplerStreams dopplerStreams = mock(DopplerStreams.class);
+        when(dopplerStreams.stream(APPLICATION_ID)).thenReturn(doppler.asFlux());
+        CfInventory inventory = mock(CfInventory.class);
+        when(inventory.applicationId("org", "space", "app")).thenReturn(Mono.just(APPLICATION_ID));
+        Foundation foundation = new Foundation("default", null, null, null, null, null, null, dopplerClient, null,
+                null, inventory, dopplerStreams);
+        FoundationRegistry foundations = mock(FoundationRegistry.class);
+        when(foundations.get(null)).thenReturn(foundation);
+        logTools = new LogTools(new LogService(foundations, new SimpleMeterRegistry(), 100, 16, 10,
+                Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void defaultCallsSeeLinesLoggedSinceThePreviousCall() {
+        assertThat(messages(tail(null))).containsExactly("recent");
+
+        doppler.tryEmitNext(envelope("first"));
+        doppler.tryEmitNext(envelope("second"));
+
+        assertThat(messages(tail(null))).containsExactly("recent", "first", "second");
+        verify(dopplerClient, times(1)).recentLogs(any());
+    }
+
+    @Test
+    void analysisSeesLinesLoggedSinceThePreviousCall() {
+        assertThat(analyze().lines()).isEqualTo(1);
+
+        doppler.tryEmitNext(envelope("first"));
+
+        assertThat(analyze().lines()).isEqualTo(2);
+    }
+
+    @Test
+    void streamStaysSubscribedBetweenCalls() {
+        tail(null);
+
+        assertThat(doppler.currentSubscriberCount()).isEqualTo(1);
+        tail(null);
+        assertThat(doppler.currentSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void endedStreamIsReseededOnTheNextCall() {
+        tail(null);
+        doppler.tryEmitError(new IllegalStateException("disconnected"));
+
+        assertThat(messages(tail(null))).containsExactly("recent");
+        verify(dopplerClient, times(2)).recentLogs(any());
+    }
+
+    @Test
+    void limitIsClamped() {
+        tail(null);
+        doppler.tryEmitNext(envelope("first"));
+        doppler.tryEmitNext(envelope("second"));
+
+        assertThat(messages(tail(-5))).containsExactly("second");
+        assertThat(messages(tail(Integer.MAX_VALUE))).containsExactly("recent", "first", "second");
+    }
+
+    @Test
+    void invalidPatternIsReadableError() {
+        assertThatThrownBy(() -> logTools.tailLogs("app", "org", "space", null, null, null, "error(", null, null).block())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Pattern error( is not a valid regular expression: Unclosed group at index 6");
+    }
+
+    private List<LogLine> tail(Integer limit) {
+        return logTools.tailLogs("app", "org", "space", null, null, null, null, null, limit).block(Duration.ofSeconds(5));
+    }
+
+    private LogSummary analyze() {
+        return logTools.analyzeLogs("app", "org", "space", null, null, null, null, null, null, null)
+                .block(Duration.ofSeconds(5));
+    }
+
+    private static List<String> messages(List<LogLine> lines) {
+        return lines.stream().map(LogLine::message).toList();
+    }
+
+    private Envelope envelope(String message) {
+        return Envelope.builder()
+                .eventType(EventType.LOG_MESSAGE)
+                .origin("test")
+                .logMessage(LogMessage.builder()
+                        .message(message)
+                        .messageType(MessageType.OUT)
+                        .timestamp(clock.incrementAndGet())
+                        .sourceType("APP/PROC/WEB")
+                        .sourceInstance("0")
+                        .build())
+                .build();
+    }
+}
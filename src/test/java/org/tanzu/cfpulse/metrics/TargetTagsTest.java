@@ -0,0 +1,67 @@
+package org.tanzu.cfpulse.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tanzu.cfpulse.cf.FoundationProperties;
+import org.tanzu.cfpulse.cf.FoundationRegistry;
+import org.tanzu.cfpulse.stub.StubCloudController;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TargetTagsTest {
+    private StubCloudController stub;
+    private FoundationRegistry foundations;
+    private TargetTags tags;
+
+    @BeforeEach
+    void setUp() {
+        stub = new StubCloudController(2, 3, 50);
+        foundations = new FoundationRegistry(
+                new FoundationProperties("127.0.0.1", stub.port(), false, "test", "test", false, null, null),
+                HttpClient.create(), new SimpleMeterRegistry(), Duration.ofSeconds(10), 16, Duration.ofMinutes(10),
+                Duration.ofMinutes(5), Duration.ofMinutes(10), 100, 50, 4, Duration.ofSeconds(60),
+                Duration.ofMinutes(2), 10, Duration.ofMinutes(30));
+        tags = new TargetTags(foundations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        foundations.dispose();
+        stub.close();
+    }
+
+    @Test
+    void onlyConfiguredFoundationsAreTagged() {
+        assertThat(tags.foundation(null)).isEqualTo(TargetTags.NONE);
+        assertThat(tags.foundation(foundations.defaultName())).isEqualTo(foundations.defaultName());
+        assertThat(tags.foundation("made-up")).isEqualTo(TargetTags.UNKNOWN);
+    }
+
+    @Test
+    void orgsAreTaggedOnceTheInventoryHasThem() {
+        assertThat(tags.org(null, " ")).isEqualTo(TargetTags.NONE);
+        assertThat(tags.org(null, "org1")).isEqualTo(TargetTags.UNKNOWN);
+
+        foundations.get(null).inventory().organizations(null).block(Duration.ofSeconds(10));
+
+        assertThat(tags.org(null, "org1")).isEqualTo("org1");
+        assertThat(tags.org(foundations.defaultName(), "org1")).isEqualTo("org1");
+        assertThat(tags.org("made-up", "org1")).isEqualTo(TargetTags.UNKNOWN);
+        assertThat(tags.org(null, "made-up")).isEqualTo(TargetTags.UNKNOWN);
+    }
+
+    @Test
+    void orgsThatFailToLoadStayUnknown() {
+        foundations.get(null).inventory().spaces("made-up", null)
+                .onErrorComplete()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(tags.org(null, "made-up")).isEqualTo(TargetTags.UNKNOWN);
+        assertThat(tags.org(null, "org0")).isEqualTo(TargetTags.UNKNOWN);
+    }
+}
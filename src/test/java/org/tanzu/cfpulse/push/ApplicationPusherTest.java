@@ -0,0 +1,126 @@
+package org.tanzu.cfpulse.push;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cloudfoundry.operations.applications.PushApplicationRequest;
+import org.cloudfoundry.reactor.DefaultConnectionContext;
+import org.cloudfoundry.reactor.client.ReactorCloudFoundryClient;
+import org.cloudfoundry.reactor.tokenprovider.PasswordGrantTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tanzu.cfpulse.cf.Foundation;
+import org.tanzu.cfpulse.inventory.CfInventory;
+import org.tanzu.cfpulse.jobs.Job;
+import org.tanzu.cfpulse.stub.StubCloudController;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ApplicationPusherTest {
+    private static final String LIBRARY = "BOOT-INF/lib/library.jar";
+    private static final Map<String, String> ENTRIES = Map.of(
+            "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n",
+            "BOOT-INF/classes/App.class", "application classes",
+            LIBRARY, "library classes");
+
+    @TempDir
+    Path directory;
+
+    private StubCloudController stub;
+    private DefaultConnectionContext connectionContext;
+    private Foundation foundation;
+
+    @BeforeEach
+    void setUp() {
+        stub = new StubCloudController(1, 1, 50);
+        connectionContext = DefaultConnectionContext.builder()
+                .apiHost("127.0.0.1")
+                .port(stub.port())
+                .secure(false)
+                .build();
+        ReactorCloudFoundryClient cloudFoundryClient = ReactorCloudFoundryClient.builder()
+                .connectionContext(connectionContext)
+                .tokenProvider(PasswordGrantTokenProvider.builder().username("test").password("test").build())
+                .build();
+        CfInventory inventory = mock(CfInventory.class);
+        when(inventory.applicationId("org0", "space0", "app0")).thenReturn(Mono.just("org-0-space-0-app-0"));
+        foundation = new Foundation("default", null, "127.0.0.1", null, connectionContext, null,
+                cloudFoundryClient, null, null, null, inventory, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionContext.dispose();
+        stub.close();
+    }
+
+    @Test
+    void matchedEntriesAreLeftOutOfTheUpload() throws Exception {
+        Path jar = jar();
+        stub.cacheResource(sha1(ENTRIES.get(LIBRARY)));
+        Job job = mock(Job.class);
+        when(job.step(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        new ApplicationPusher(new JarHashCache(new SimpleMeterRegistry(), 4), Duration.ofMinutes(1))
+                .push(foundation, null, "org0", "space0", PushApplicationRequest.builder()
+                        .name("app0")
+                        .path(jar)
+                        .memory(1024)
+                        .diskQuota(1024)
+                        .build(), job)
+                .block(Duration.ofSeconds(30));
+
+        assertThat(stub.uploadedResources()).containsExactly(LIBRARY);
+        Map<String, String> uploaded = new LinkedHashMap<>(ENTRIES);
+        uploaded.remove(LIBRARY);
+        assertThat(entries(stub.uploadedBits())).isEqualTo(uploaded);
+    }
+
+    private Path jar() throws IOException {
+        Path jar = directory.resolve("app.jar");
+        try (OutputStream file = Files.newOutputStream(jar); ZipOutputStream out = new ZipOutputStream(file)) {
+            for (Map.Entry<String, String> entry : ENTRIES.entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                out.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static Map<String, String> entries(byte[] zip) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                entries.put(entry.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    private static String sha1(String content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1")
+                .digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,513 @@
+package org.tanzu.cfpulse.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.handler.codec.http.multipart.DefaultHttpDataFactory;
+import io.netty.handler.codec.http.multipart.HttpData;
+import io.netty.handler.codec.http.multipart.HttpPostMultipartRequestDecoder;
+import io.netty.handler.codec.http.multipart.InterfaceHttpData;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import javax.net.ssl.KeyManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * HTTP fake of the Cloud Controller v2/v3 and UAA endpoints the tools use, serving a generated foundation of
+ * {@code organizations} orgs with two spaces each, {@code applicationsPerSpace} apps and one service instance per
+ * space. Every listing is paginated at no more than {@code pageSize} resources per page, so the same tool call can be
+ * measured with few large pages or many small ones. A {@code secure} stub serves HTTPS with a throwaway self-signed
+ * certificate, so connection setup costs a real TLS handshake. {@link #connections()} counts the connections accepted,
+ * {@link #openConnections()} those still open and {@link #requests(String)} the requests per path;
+ * {@link #stall(String)} leaves responses unfinished. Resource matching reports the files given to
+ * {@link #cacheResource(String)} as cached, and the last application bits upload is kept for inspection. Every resource
+ * is stamped with the second the stub was created until {@link #touch(String)} moves it on. Shared by the tests and the
+ * JMH benchmarks.
+ */
+public final class StubCloudController implements AutoCloseable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<Map<String, Object>>> RESOURCES = new TypeReference<>() {
+    };
+    private static final String KEY_STORE_PASSWORD = "benchmark";
+    private static final Pattern ORGANIZATION_SPACES = Pattern.compile("^/v2/organizations/([^/]+)/spaces$");
+    private static final Pattern SPACE_SUMMARY = Pattern.compile("^/v2/spaces/([^/]+)/summary$");
+    private static final Pattern APPLICATION_V2 = Pattern.compile("^/v2/apps/([^/]+)$");
+    private static final Pattern APPLICATION_BITS = Pattern.compile("^/v2/apps/([^/]+)/bits$");
+    private static final Pattern APPLICATION_V3 = Pattern.compile("^/v3/apps/([^/]+)$");
+
+    private final int pageSize;
+    private final boolean secure;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final Set<String> stalled = ConcurrentHashMap.newKeySet();
+    private final Set<String> cachedResources = ConcurrentHashMap.newKeySet();
+    private volatile byte[] uploadedBits;
+    private volatile List<String> uploadedResources;
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final Instant createdAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    private final Map<String, Instant> updatedAt = new ConcurrentHashMap<>();
+    private final List<Org> organizations = new ArrayList<>();
+    private final List<Space> spaces = new ArrayList<>();
+    private final List<App> applications = new ArrayList<>();
+    private final List<ServiceInstance> serviceInstances = new ArrayList<>();
+    private final DisposableServer server;
+
+    public StubCloudController(int organizations, int applicationsPerSpace, int pageSize) {
+        this(organizations, applicationsPerSpace, pageSize, false);
+    }
+
+    public StubCloudController(int organizations, int applicationsPerSpace, int pageSize, boolean secure) {
+        this.pageSize = pageSize;
+        this.secure = secure;
+        for (int o = 0; o < organizations; o++) {
+            Org organization = new Org("org-" + o, "org" + o);
+            this.organizations.add(organization);
+            for (int s = 0; s < 2; s++) {
+                Space space = new Space(organization.guid() + "-space-" + s, "space" + s, organization.guid());
+                spaces.add(space);
+                serviceInstances.add(s == 0
+                        ? new ServiceInstance(space.guid() + "-db", "db", "managed", space.guid())
+                        : new ServiceInstance(space.guid() + "-credentials", "credentials", "user-provided", space.guid()));
+                for (int a = 0; a < applicationsPerSpace; a++) {
+                    applications.add(new App(space.guid() + "-app-" + a, "app" + a, space.guid(), organization.guid(),
+                            a % 5 == 0 ? "STOPPED" : "STARTED"));
+                }
+            }
+        }
+        HttpServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .doOnChannelInit((observer, channel, address) -> {
+                    connections.incrementAndGet();
+                    openConnections.incrementAndGet();
+                    channel.closeFuture().addListener(future -> openConnections.decrementAndGet());
+                })
+                .handle(this::handle);
+        this.server = (secure ? server.secure(ssl -> ssl.sslContext(Http11SslContextSpec.forServer(selfSigned()))) : server)
+                .bindNow();
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    public int openConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * Makes responses to {@code path} send the first half of their body and then hang.
+     */
+    public void stall(String path) {
+        stalled.add(path);
+    }
+
+    public int requests(String path) {
+        AtomicInteger count = requests.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Stamps a resource as updated one second after everything else.
+     */
+    public void touch(String guid) {
+        updatedAt.put(guid, createdAt.plusSeconds(1));
+    }
+
+    /**
+     * Makes resource matching report a file with this SHA-1 as already in the resource cache.
+     */
+    public void cacheResource(String sha1) {
+        cachedResources.add(sha1);
+    }
+
+    /**
+     * The zip of the last application bits upload, or null.
+     */
+    public byte[] uploadedBits() {
+        return uploadedBits;
+    }
+
+    /**
+     * The paths of the cached resources the last application bits upload referred to, or null.
+     */
+    public List<String> uploadedResources() {
+        return uploadedResources;
+    }
+
+    /**
+     * Adds an org without spaces; call it before the first request.
+     */
+    public void addOrganization(String name) {
+        organizations.add(new Org("org-" + name, name));
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        QueryStringDecoder uri = new QueryStringDecoder(request.uri());
+        requests.computeIfAbsent(uri.path(), path -> new AtomicInteger()).incrementAndGet();
+        Matcher applicationBits = APPLICATION_BITS.matcher(uri.path());
+        if (request.method() == HttpMethod.PUT && applicationBits.matches()) {
+            return upload(request, response, applicationBits.group(1));
+        }
+        if (request.method() == HttpMethod.PUT && uri.path().equals("/v2/resource_match")) {
+            return request.receive().aggregate().asString().defaultIfEmpty("[]")
+                    .flatMap(resources -> response.header("Content-Type", "application/json")
+                            .sendString(Mono.just(json(matchResources(resources))))
+                            .then());
+        }
+        Object body;
+        if (request.method() == HttpMethod.POST) {
+            body = uri.path().startsWith("/oauth/token") ? token() : Map.of();
+        } else {
+            body = get(uri.path(), uri.parameters());
+        }
+        if (body == null) {
+            return response.status(HttpResponseStatus.NOT_FOUND)
+                    .header("Content-Type", "application/json")
+                    .sendString(Mono.just(json(obj("error_code", "CF-NotFound", "code", 10000, "description", "not found " + uri.path()))))
+                    .then();
+        }
+        String json = json(body);
+        return request.receive().then(response.header("Content-Type", "application/json")
+                .sendString(stalled.contains(uri.path())
+                        ? Flux.concat(Mono.just(json.substring(0, json.length() / 2)), Mono.never())
+                        : Mono.just(json))
+                .then());
+    }
+
+    /**
+     * Keeps the parts of a bits upload. Reactor Netty only decodes forms sent with POST, the upload is a PUT.
+     */
+    private Mono<Void> upload(HttpServerRequest request, HttpServerResponse response, String applicationGuid) {
+        return request.receive().aggregate().retain()
+                .doOnNext(content -> {
+                    HttpPostMultipartRequestDecoder decoder = new HttpPostMultipartRequestDecoder(
+                            new DefaultHttpDataFactory(false), new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+                            HttpMethod.POST, request.uri(), content, request.requestHeaders(), EmptyHttpHeaders.INSTANCE));
+                    try {
+                        for (InterfaceHttpData data : decoder.getBodyHttpDatas()) {
+                            HttpData part = (HttpData) data;
+                            if (part.getName().equals("application")) {
+                                uploadedBits = part.get();
+                            } else if (part.getName().equals("resources")) {
+                                uploadedResources = MAPPER.readValue(part.getString(StandardCharsets.UTF_8), RESOURCES)
+                                        .stream()
+                                        .map(resource -> (String) resource.get("fn"))
+                                        .toList();
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        decoder.destroy();
+                        content.release();
+                    }
+                })
+                .then(Mono.defer(() -> response.header("Content-Type", "application/json")
+                        .sendString(Mono.just(json(v2Resource(applicationGuid + "-upload",
+                                obj("guid", applicationGuid + "-upload", "status", "finished")))))
+                        .then()));
+    }
+
+    private List<Map<String, Object>> matchResources(String resources) {
+        try {
+            return MAPPER.readValue(resources, RESOURCES).stream()
+                    .filter(resource -> cachedResources.contains((String) resource.get("sha1")))
+                    .toList();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private Object get(String path, Map<String, List<String>> parameters) {
+        String base = url("http");
+        Map<String, String> filters = v2Filters(parameters);
+        Matcher organizationSpaces = ORGANIZATION_SPACES.matcher(path);
+        Matcher spaceSummary = SPACE_SUMMARY.matcher(path);
+        Matcher applicationV2 = APPLICATION_V2.matcher(path);
+        Matcher applicationV3 = APPLICATION_V3.matcher(path);
+        if (path.equals("/")) {
+            Map<String, Object> links = new LinkedHashMap<>();
+            for (String link : List.of("self", "uaa", "login", "routing", "network_policy_v0", "network_policy_v1")) {
+                links.put(link, obj("href", base));
+            }
+            links.put("cloud_controller_v2", obj("href", base + "/v2", "meta", obj("version", "2.200.0")));
+            links.put("cloud_controller_v3", obj("href", base + "/v3", "meta", obj("version", "3.150.0")));
+            links.put("logging", obj("href", url("ws")));
+            return obj("links", links);
+        }
+        if (path.equals("/v2/info")) {
+            return obj("api_version", "2.200.0", "token_endpoint", base, "authorization_endpoint", base,
+                    "doppler_logging_endpoint", url("ws"), "routing_endpoint", base);
+        }
+        if (path.equals("/v2/organizations")) {
+            return v2Page(organizations, organization -> !filters.containsKey("name") || organization.name().equals(filters.get("name")),
+                    organization -> v2Resource(organization.guid(), obj("name", organization.name(), "status", "active", "quota_definition_guid", "q")),
+                    parameters);
+        }
+        if (path.equals("/v2/spaces") || organizationSpaces.matches()) {
+            String organizationGuid = organizationSpaces.matches() ? organizationSpaces.group(1) : filters.get("organization_guid");
+            return v2Page(spaces, space -> (organizationGuid == null || space.organizationGuid().equals(organizationGuid))
+                            && (!filters.containsKey("name") || space.name().equals(filters.get("name"))),
+                    space -> v2Resource(space.guid(), obj("name", space.name(), "organization_guid", space.organizationGuid())),
+                    parameters);
+        }
+        if (spaceSummary.matches()) {
+            String spaceGuid = spaceSummary.group(1);
+            return obj("guid", spaceGuid, "name", "space", "services", List.of(), "apps", applications.stream()
+                    .filter(application -> application.spaceGuid().equals(spaceGuid))
+                    .map(application -> obj("guid", application.guid(), "name", application.name(), "state", application.state(),
+                            "instances", 2, "running_instances", application.state().equals("STARTED") ? 2 : 0,
+                            "memory", 1024, "disk_quota", 1024, "urls", List.of(application.name() + ".apps.example.com"),
+                            "service_count", 0, "service_names", List.of()))
+                    .toList());
+        }
+        if (applicationV2.matches()) {
+            return application(applicationV2.group(1))
+                    .map(application -> v2Resource(application.guid(), obj("name", application.name(),
+                            "space_guid", application.spaceGuid(), "state", application.state(), "instances", 2,
+                            "memory", 1024, "disk_quota", 1024, "package_updated_at", createdAt.toString())))
+                    .orElse(null);
+        }
+        if (applicationV3.matches()) {
+            return application(applicationV3.group(1)).map(this::v3Application).orElse(null);
+        }
+        if (path.equals("/v3/organizations")) {
+            Set<String> names = v3Filter(parameters, "names");
+            return v3Page(organizations, organization -> names == null || names.contains(organization.name()),
+                    organization -> v3Resource(organization.guid(), "name", organization.name(), "suspended", false,
+                            "relationships", obj("quota", obj("data", obj("guid", "q")))),
+                    parameters);
+        }
+        if (path.equals("/v3/spaces")) {
+            Set<String> organizationGuids = v3Filter(parameters, "organization_guids");
+            Set<String> names = v3Filter(parameters, "names");
+            return v3Page(spaces, space -> (organizationGuids == null || organizationGuids.contains(space.organizationGuid()))
+                            && (names == null || names.contains(space.name())),
+                    space -> v3Resource(space.guid(), "name", space.name(),
+                            "relationships", obj("organization", obj("data", obj("guid", space.organizationGuid())))),
+                    parameters);
+        }
+        if (path.equals("/v3/apps")) {
+            Set<String> organizationGuids = v3Filter(parameters, "organization_guids");
+            Set<String> spaceGuids = v3Filter(parameters, "space_guids");
+            return v3Page(applications, application -> (organizationGuids == null || organizationGuids.contains(application.organizationGuid()))
+                            && (spaceGuids == null || spaceGuids.contains(application.spaceGuid())),
+                    this::v3Application,
+                    parameters);
+        }
+        if (path.equals("/v3/processes")) {
+            Set<String> organizationGuids = v3Filter(parameters, "organization_guids");
+            return v3Page(applications, application -> organizationGuids == null || organizationGuids.contains(application.organizationGuid()),
+                    application -> v3Resource(application.guid() + "-web", "type", "web", "command", "[PRIVATE DATA HIDDEN IN LISTS]",
+                            "instances", 2, "memory_in_mb", 1024, "disk_in_mb", 1024, "health_check", obj("type", "port", "data", Map.of()),
+                            "relationships", obj("app", obj("data", obj("guid", application.guid())))),
+                    parameters);
+        }
+        if (path.equals("/v3/service_instances")) {
+            Set<String> spaceGuids = v3Filter(parameters, "space_guids");
+            return v3Page(serviceInstances, serviceInstance -> spaceGuids == null || spaceGuids.contains(serviceInstance.spaceGuid()),
+                    serviceInstance -> v3Resource(serviceInstance.guid(), "name", serviceInstance.name(), "type", serviceInstance.type(),
+                            "tags", List.of(), "relationships", obj("space", obj("data", obj("guid", serviceInstance.spaceGuid())))),
+                    parameters);
+        }
+        if (path.startsWith("/v3/")) {
+            return v3Page(List.of(), resource -> true, Function.identity(), parameters);
+        }
+        return null;
+    }
+
+    private Optional<App> application(String guid) {
+        return applications.stream().filter(application -> application.guid().equals(guid)).findFirst();
+    }
+
+    private Map<String, Object> v3Application(App application) {
+        return v3Resource(application.guid(), "name", application.name(), "state", application.state(),
+                "lifecycle", obj("type", "buildpack", "data", obj("buildpacks", List.of(), "stack", "cflinuxfs4")),
+                "relationships", obj("space", obj("data", obj("guid", application.spaceGuid()))));
+    }
+
+    private <T> Map<String, Object> v2Page(List<T> all, Predicate<T> filter, Function<T, Object> resource,
+                                           Map<String, List<String>> parameters) {
+        List<T> matching = all.stream().filter(filter).toList();
+        int perPage = Math.min(pageSize, intParameter(parameters, "results-per-page", 50));
+        int page = intParameter(parameters, "page", 1);
+        return obj("total_results", matching.size(),
+                "total_pages", Math.max(1, (matching.size() + perPage - 1) / perPage),
+                "prev_url", null,
+                "next_url", null,
+                "resources", slice(matching, page, perPage).stream().map(resource).toList());
+    }
+
+    private <T> Map<String, Object> v3Page(List<T> all, Predicate<T> filter, Function<T, Object> resource,
+                                           Map<String, List<String>> parameters) {
+        List<T> matching = all.stream().filter(filter).toList();
+        int perPage = Math.min(pageSize, intParameter(parameters, "per_page", 50));
+        int page = intParameter(parameters, "page", 1);
+        Map<String, Object> href = obj("href", url("http"));
+        return obj("pagination", obj("total_results", matching.size(),
+                        "total_pages", Math.max(1, (matching.size() + perPage - 1) / perPage),
+                        "first", href, "last", href, "next", null, "previous", null),
+                "resources", slice(matching, page, perPage).stream().map(resource).toList());
+    }
+
+    private String url(String scheme) {
+        return scheme + (secure ? "s" : "") + "://127.0.0.1:" + port();
+    }
+
+    private static <T> List<T> slice(List<T> matching, int page, int perPage) {
+        int from = Math.min(matching.size(), (page - 1) * perPage);
+        return matching.subList(from, Math.min(matching.size(), from + perPage));
+    }
+
+    private Map<String, Object> v2Resource(String guid, Map<String, Object> entity) {
+        return obj("metadata", obj("guid", guid, "url", "/x/" + guid, "created_at", createdAt.toString(), "updated_at", updatedAt(guid)),
+                "entity", entity);
+    }
+
+    private Map<String, Object> v3Resource(String guid, Object... fields) {
+        Map<String, Object> resource = obj("guid", guid, "created_at", createdAt.toString(), "updated_at", updatedAt(guid), "links", Map.of(),
+                "metadata", obj("labels", Map.of(), "annotations", Map.of()));
+        resource.putAll(obj(fields));
+        return resource;
+    }
+
+    private String updatedAt(String guid) {
+        return updatedAt.getOrDefault(guid, createdAt).toString();
+    }
+
+    private static Map<String, String> v2Filters(Map<String, List<String>> parameters) {
+        Map<String, String> filters = new LinkedHashMap<>();
+        parameters.getOrDefault("q", List.of()).forEach(filter -> {
+            int separator = filter.indexOf(':');
+            filters.put(filter.substring(0, separator), filter.substring(separator + 1));
+        });
+        return filters;
+    }
+
+    private static Set<String> v3Filter(Map<String, List<String>> parameters, String name) {
+        List<String> values = parameters.get(name);
+        return values == null ? null : Set.of(String.join(",", values).split(","));
+    }
+
+    private static int intParameter(Map<String, List<String>> parameters, String name, int defaultValue) {
+        List<String> values = parameters.get(name);
+        return values == null ? defaultValue : Integer.parseInt(values.getFirst());
+    }
+
+    /**
+     * Key material for a certificate valid for 127.0.0.1, generated with the JDK's keytool since Netty's
+     * {@code SelfSignedCertificate} needs Bouncy Castle on current JDKs.
+     */
+    private static KeyManagerFactory selfSigned() {
+        try {
+            Path keyStore = Files.createTempDirectory("stub-cloud-controller").resolve("stub.p12");
+            Process keytool = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                    "-genkeypair", "-alias", "stub", "-keyalg", "EC", "-groupname", "secp256r1",
+                    "-dname", "CN=127.0.0.1", "-ext", "SAN=ip:127.0.0.1", "-validity", "1",
+                    "-storetype", "PKCS12", "-keystore", keyStore.toString(), "-storepass", KEY_STORE_PASSWORD)
+                    .redirectErrorStream(true)
+                    .start();
+            if (keytool.waitFor() != 0) {
+                throw new IllegalStateException("keytool failed: " + new String(keytool.getInputStream().readAllBytes()));
+            }
+            KeyStore store = KeyStore.getInstance("PKCS12");
+            try (InputStream in = Files.newInputStream(keyStore)) {
+                store.load(in, KEY_STORE_PASSWORD.toCharArray());
+            }
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(store, KEY_STORE_PASSWORD.toCharArray());
+            return keyManagers;
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, Object> token() {
+        String token = jwt();
+        return obj("access_token", token, "token_type", "bearer", "refresh_token", token, "expires_in", 3600,
+                "scope", "cloud_controller.admin", "jti", "benchmark");
+    }
+
+    private static String jwt() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString(json(obj("alg", "none")).getBytes(StandardCharsets.UTF_8));
+        String claims = encoder.encodeToString(json(obj("user_name", "benchmark", "user_id", "benchmark",
+                "exp", Instant.now().plusSeconds(3600).getEpochSecond(), "scope", List.of("cloud_controller.admin")))
+                .getBytes(StandardCharsets.UTF_8));
+        return header + "." + claims + ".signature";
+    }
+
+    private static Map<String, Object> obj(Object... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        IntStream.range(0, keyValues.length / 2).forEach(i -> map.put((String) keyValues[2 * i], keyValues[2 * i + 1]));
+        return map;
+    }
+
+    private static String json(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Org(String guid, String name) {
+    }
+
+    private record Space(String guid, String name, String organizationGuid) {
+    }
+
+    private record ServiceInstance(String guid, String name, String type, String spaceGuid) {
+    }
+
+    private record App(String guid, String name, String spaceGuid, String organizationGuid, String state) {
+    }
+}